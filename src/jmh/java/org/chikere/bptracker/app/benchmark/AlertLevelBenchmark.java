@@ -0,0 +1,80 @@
+package org.chikere.bptracker.app.benchmark;
+
+import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of classifying readings, as done per row by recording and bulk ingestion, over arrays of readings.
+ * Pressures follow a realistic spread, so all four alert levels and both branches of the critical check are taken.
+ * Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args=AlertLevel}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertLevelBenchmark {
+
+    /**
+     * Readings per array: one bulk ingestion request, and a large backfill
+     */
+    @Param({"5000", "1000000"})
+    private int readings;
+
+    private BloodPressureReading[] batch;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        batch = new BloodPressureReading[readings];
+        for (int i = 0; i < readings; i++) {
+            BloodPressureReading reading = new BloodPressureReading();
+            reading.setSystolicPressure((int) Math.round(135 + random.nextGaussian() * 22));
+            reading.setDiastolicPressure((int) Math.round(85 + random.nextGaussian() * 13));
+            batch[i] = reading;
+        }
+    }
+
+    /**
+     * Alert level classification of every reading
+     */
+    @Benchmark
+    public int calculateAlertLevel() {
+        int critical = 0;
+        for (BloodPressureReading reading : batch) {
+            reading.calculateAlertLevel();
+            if (reading.getAlertLevel() == BloodPressureReading.AlertLevel.CRITICAL) {
+                critical++;
+            }
+        }
+        return critical;
+    }
+
+    /**
+     * Critical threshold check of every reading, with the default thresholds
+     */
+    @Benchmark
+    public int isCritical() {
+        int critical = 0;
+        for (BloodPressureReading reading : batch) {
+            if (reading.isCritical(180, 120)) {
+                critical++;
+            }
+        }
+        return critical;
+    }
+}
@@ -0,0 +1,94 @@
+package org.chikere.bptracker.app.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.chikere.bptracker.app.model.Patient;
+import org.chikere.bptracker.app.service.AlertService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building alert events in {@link AlertService}, which formats its messages with {@code String.format}.
+ * Events go to a publisher that only keeps the last one, so the numbers are message formatting, event creation
+ * and counting the alert.
+ * {@link #concatenatedMessage()} builds the high BP message with string concatenation as a baseline.
+ * Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args=AlertMessage}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertMessageBenchmark {
+
+    private AlertService alertService;
+    private Patient patient;
+    private BloodPressureReading reading;
+    private Object lastEvent;
+
+    @Setup
+    public void setUp() {
+        alertService = new AlertService(event -> lastEvent = event, new SimpleMeterRegistry());
+
+        patient = new Patient();
+        patient.setId(42L);
+        patient.setFirstName("Robert");
+        patient.setLastName("Johnson");
+        patient.setPhoneNumber("+1122334455");
+
+        reading = new BloodPressureReading();
+        reading.setId(1001L);
+        reading.setPatient(patient);
+        reading.setSystolicPressure(192);
+        reading.setDiastolicPressure(124);
+        reading.calculateAlertLevel();
+    }
+
+    /**
+     * High BP alert for a critical reading
+     */
+    @Benchmark
+    public Object highBPAlert() {
+        alertService.triggerHighBPAlert(reading);
+        return lastEvent;
+    }
+
+    /**
+     * Trend alert, which formats both a log message and an SMS message
+     */
+    @Benchmark
+    public Object abnormalTrendAlert() {
+        alertService.triggerAbnormalTrendAlert(patient, "Systolic trend +1.8 mmHg/day over 14 days");
+        return lastEvent;
+    }
+
+    /**
+     * Live dashboard alert for a high or critical reading
+     */
+    @Benchmark
+    public Object readingAlert() {
+        alertService.publishReadingAlert(reading);
+        return lastEvent;
+    }
+
+    /**
+     * The high BP message built with string concatenation instead of {@code String.format}
+     */
+    @Benchmark
+    public String concatenatedMessage() {
+        return "ALERT: Critical BP reading detected for " + patient.getFirstName() + " " + patient.getLastName() +
+                ". Systolic: " + reading.getSystolicPressure() + ", Diastolic: " + reading.getDiastolicPressure() +
+                ". Immediate attention required.";
+    }
+}
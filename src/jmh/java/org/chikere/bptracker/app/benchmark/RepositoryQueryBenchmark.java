@@ -0,0 +1,149 @@
+package org.chikere.bptracker.app.benchmark;
+
+import org.chikere.bptracker.app.AppApplication;
+import org.chikere.bptracker.app.config.LargeDatasetSeeder;
+import org.chikere.bptracker.app.dto.CriticalReading;
+import org.chikere.bptracker.app.dto.PatientListItem;
+import org.chikere.bptracker.app.dto.ReadingListItem;
+import org.chikere.bptracker.app.dto.ReadingPoint;
+import org.chikere.bptracker.app.repository.BloodPressureReadingRepository;
+import org.chikere.bptracker.app.repository.PatientRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Latency of the repository queries behind the main pages, against an embedded H2 database seeded by
+ * {@link LargeDatasetSeeder} with 5,000 patients and 40 readings each over 15 days.
+ * The second-level and query caches are off, so every call reaches the database.
+ * Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args=RepositoryQuery}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryQueryBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    private ConfigurableApplicationContext context;
+    private PatientRepository patientRepository;
+    private BloodPressureReadingRepository readingRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private long patientId;
+    private PatientListItem patientPageEnd;
+    private ReadingListItem readingPageEnd;
+    private LocalDateTime now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(AppApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("seed")
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark",
+                        "app.seed.patients=5000",
+                        "app.seed.readings-per-patient=40",
+                        "app.seed.days=15",
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN",
+                        "logging.level.org.chikere.bptracker=WARN")
+                .run();
+        patientRepository = context.getBean(PatientRepository.class);
+        readingRepository = context.getBean(BloodPressureReadingRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        List<Long> patientIds = context.getBean(JdbcTemplate.class).queryForList(
+                "SELECT id FROM patients WHERE email LIKE ? ORDER BY id", Long.class, "%" + LargeDatasetSeeder.EMAIL_DOMAIN);
+        patientId = patientIds.get(patientIds.size() / 2);
+
+        now = LocalDateTime.now();
+        patientPageEnd = patientRepository.findListItemsOrderByName(Limit.of(PAGE_SIZE)).getLast();
+        readingPageEnd = readingRepository.findListItemsByPatientId(patientId, Limit.of(PAGE_SIZE)).getLast();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * First page of the patient list, in name order
+     */
+    @Benchmark
+    public List<PatientListItem> patientListFirstPage() {
+        return patientRepository.findListItemsOrderByName(Limit.of(PAGE_SIZE + 1));
+    }
+
+    /**
+     * Following page of the patient list, by keyset
+     */
+    @Benchmark
+    public List<PatientListItem> patientListNextPage() {
+        return patientRepository.findListItemsAfter(patientPageEnd.lastName(), patientPageEnd.firstName(),
+                patientPageEnd.id(), Limit.of(PAGE_SIZE + 1));
+    }
+
+    /**
+     * First page of a patient's readings
+     */
+    @Benchmark
+    public List<ReadingListItem> readingListFirstPage() {
+        return readingRepository.findListItemsByPatientId(patientId, Limit.of(PAGE_SIZE + 1));
+    }
+
+    /**
+     * Following page of a patient's readings, by keyset
+     */
+    @Benchmark
+    public List<ReadingListItem> readingListNextPage() {
+        return readingRepository.findListItemsForPatientBefore(patientId, readingPageEnd.readingTime(),
+                readingPageEnd.id(), Limit.of(PAGE_SIZE + 1));
+    }
+
+    /**
+     * Most recent critical readings across all patients, as shown on the dashboard
+     */
+    @Benchmark
+    public List<CriticalReading> recentCriticalReadings() {
+        return readingRepository.findRecentCritical(Limit.of(5));
+    }
+
+    /**
+     * A patient's chart points over the last week, streamed inside a read-only transaction as the chart data endpoint does
+     */
+    @Benchmark
+    public List<ReadingPoint> weekOfChartPoints() {
+        return readOnlyTransaction.execute(status -> {
+            try (Stream<ReadingPoint> points =
+                         readingRepository.streamPointsByPatientIdBetween(patientId, now.minusWeeks(1), now)) {
+                return points.toList();
+            }
+        });
+    }
+}
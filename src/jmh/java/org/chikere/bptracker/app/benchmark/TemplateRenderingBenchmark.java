@@ -0,0 +1,134 @@
+package org.chikere.bptracker.app.benchmark;
+
+import org.chikere.bptracker.app.dto.ChartPoint;
+import org.chikere.bptracker.app.dto.CursorPage;
+import org.chikere.bptracker.app.dto.ReadingListItem;
+import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.chikere.bptracker.app.model.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering the reading list and chart pages with large models, using the application's templates
+ * with template caching on, as in production. Measures rendering only; the models are built once.
+ * Run with {@code mvn -Pjmh test-compile exec:exec -Djmh.args=TemplateRendering}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateRenderingBenchmark {
+
+    /**
+     * Rows on the reading list page, and points on the chart page
+     */
+    @Param({"100", "1000"})
+    private int rows;
+
+    private SpringTemplateEngine templateEngine;
+    private IWebExchange exchange;
+    private Map<String, Object> listModel;
+    private Map<String, Object> chartModel;
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode(TemplateMode.HTML);
+        templateResolver.setCacheable(true);
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+        MockServletContext servletContext = new MockServletContext();
+        exchange = JakartaServletWebApplication.buildApplication(servletContext)
+                .buildExchange(new MockHttpServletRequest(servletContext), new MockHttpServletResponse());
+
+        Patient patient = new Patient();
+        patient.setId(42L);
+        patient.setFirstName("Robert");
+        patient.setLastName("Johnson");
+        patient.setGender(Patient.Gender.MALE);
+        patient.setDateOfBirth(LocalDate.of(1962, 3, 10));
+
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+        List<ReadingListItem> readings = new ArrayList<>(rows);
+        List<ChartPoint> chartData = new ArrayList<>(rows);
+        DateTimeFormatter label = DateTimeFormatter.ofPattern("MMM dd HH:mm");
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime time = now.minusHours(i);
+            int systolic = (int) Math.round(135 + random.nextGaussian() * 20);
+            int diastolic = (int) Math.round(85 + random.nextGaussian() * 12);
+            BloodPressureReading reading = new BloodPressureReading();
+            reading.setSystolicPressure(systolic);
+            reading.setDiastolicPressure(diastolic);
+            reading.calculateAlertLevel();
+            readings.add(new ReadingListItem((long) rows - i, time, systolic, diastolic, 60 + random.nextInt(40),
+                    reading.getAlertLevel(), i % 5 == 0 ? "Measured after a short walk, patient reported mild headache" : null));
+            chartData.add(new ChartPoint(time.format(label), systolic, diastolic, 60.0 + random.nextInt(40)));
+        }
+
+        listModel = Map.of(
+                "patient", patient,
+                "readings", new CursorPage<>(readings, CursorPage.encodeCursor(now, 1L), rows),
+                "cursor", CursorPage.encodeCursor(now.plusDays(1), 2L));
+        chartModel = Map.of(
+                "patient", patient,
+                "chartData", chartData.reversed(),
+                "period", "month");
+    }
+
+    /**
+     * One page of the reading list
+     */
+    @Benchmark
+    public int readingList() {
+        return render("bp-readings/list", listModel);
+    }
+
+    /**
+     * The chart page, with its points serialized into the page script
+     */
+    @Benchmark
+    public int chart() {
+        return render("bp-readings/chart", chartModel);
+    }
+
+    private int render(String template, Map<String, Object> model) {
+        StringWriter writer = new StringWriter(64 * 1024);
+        templateEngine.process(template, new WebContext(exchange, Locale.US, model), writer);
+        return writer.getBuffer().length();
+    }
+}
@@ -0,0 +1,91 @@
+package org.chikere.bptracker.app.benchmark;
+
+import org.chikere.bptracker.app.service.StatisticalTrendModel;
+import org.chikere.bptracker.app.service.TrendModel;
+import org.chikere.bptracker.app.service.TrendSeries;
+import org.chikere.bptracker.app.service.TrendWindow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-patient cost of trend analysis over a 30-day window at different reading frequencies.
+ * Run with {@code mvn -Pjmh test-compile exec:exec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrendModelBenchmark {
+
+    /**
+     * Readings in the window: 30 days at 1, 4 and 24 readings per day
+     */
+    @Param({"30", "120", "720"})
+    private int readings;
+
+    private final TrendModel model = new StatisticalTrendModel();
+    private byte[] packedWindow;
+    private long nextReadingTime;
+    private TrendSeries series;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        long minutesBetween = 30L * 24 * 60 / readings;
+        TrendWindow window = new TrendWindow(readings);
+        for (int i = 0; i < readings; i++) {
+            LocalDateTime time = start.plusMinutes(i * minutesBetween);
+            double circadian = 8 * Math.sin((time.getHour() - 4) * Math.PI / 12);
+            int systolic = (int) Math.round(128 + circadian + random.nextGaussian() * 8);
+            int diastolic = (int) Math.round(82 + circadian / 2 + random.nextGaussian() * 5);
+            window.insert(i + 1, time.toEpochSecond(ZoneOffset.UTC), systolic, diastolic);
+        }
+        packedWindow = window.pack();
+        nextReadingTime = start.plusMinutes(readings * minutesBetween).toEpochSecond(ZoneOffset.UTC);
+        series = toSeries(window);
+    }
+
+    /**
+     * Model evaluation alone, over a prepared series
+     */
+    @Benchmark
+    public String analyze() {
+        return model.analyze(series);
+    }
+
+    /**
+     * Unpacking the stored window, folding in a new reading, packing it again and evaluating the model,
+     * as done per patient with a new reading by the sweep
+     */
+    @Benchmark
+    public String foldAndAnalyze(Blackhole blackhole) {
+        TrendWindow window = TrendWindow.unpack(packedWindow);
+        window.insert(readings + 1L, nextReadingTime, 131, 83);
+        blackhole.consume(window.pack());
+        return model.analyze(toSeries(window));
+    }
+
+    private static TrendSeries toSeries(TrendWindow window) {
+        TrendSeries series = window.toSeries();
+        series.setBaseline(128, 82, 8, 5, 500);
+        return series;
+    }
+}
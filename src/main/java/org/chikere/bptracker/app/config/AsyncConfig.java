@@ -0,0 +1,33 @@
+package org.chikere.bptracker.app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuration for background executors
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Executor delivering alerts off the request thread.
+     * Deliveries run on virtual threads, so a delivery sleeping between retries does not hold a platform thread;
+     * concurrency and the backlog are bounded so a provider outage cannot pile up unbounded work.
+     * @param concurrency the maximum number of concurrent deliveries
+     * @param queueCapacity the maximum number of alerts waiting for delivery
+     * @return the alert dispatch executor
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor alertDispatchExecutor(
+            @Value("${app.alerts.dispatch.concurrency:16}") int concurrency,
+            @Value("${app.alerts.dispatch.queue-capacity:1000}") int queueCapacity) {
+        return new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("alert-dispatch-", 0).factory());
+    }
+}
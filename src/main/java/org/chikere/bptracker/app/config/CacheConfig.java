@@ -0,0 +1,80 @@
+package org.chikere.bptracker.app.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Configuration for the Hibernate second-level cache.
+ * Patients, users and cached query results are kept in bounded, expiring in-process Caffeine caches,
+ * exposed to Hibernate through JCache. Hibernate keeps the caches in sync with committed changes made
+ * through JPA; hit and miss counts are collected both by Caffeine and by Hibernate statistics.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String PATIENTS = "patients";
+    public static final String USERS = "users";
+    public static final String QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    /**
+     * Cache manager holding the second-level cache regions.
+     * Each application context gets its own manager, so contexts sharing a JVM (as in tests) do not share regions.
+     * @param patientsMaxSize the maximum number of cached patients
+     * @param patientsTtl how long a cached patient is kept after it was loaded or updated
+     * @param usersMaxSize the maximum number of cached users
+     * @param usersTtl how long a cached user is kept after it was loaded or updated
+     * @param queryResultsMaxSize the maximum number of cached query results
+     * @param queryResultsTtl how long a cached query result is kept
+     * @return the JCache cache manager
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.patients.max-size:10000}") long patientsMaxSize,
+            @Value("${app.cache.patients.ttl:PT30M}") Duration patientsTtl,
+            @Value("${app.cache.users.max-size:1000}") long usersMaxSize,
+            @Value("${app.cache.users.ttl:PT30M}") Duration usersTtl,
+            @Value("${app.cache.query-results.max-size:1000}") long queryResultsMaxSize,
+            @Value("${app.cache.query-results.ttl:PT10M}") Duration queryResultsTtl) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("bptracker:" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(PATIENTS, region(patientsMaxSize, patientsTtl));
+        cacheManager.createCache(USERS, region(usersMaxSize, usersTtl));
+        cacheManager.createCache(QUERY_RESULTS, region(queryResultsMaxSize, queryResultsTtl));
+        // Table modification timestamps must outlive every cached query result, so they never expire
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStatisticsEnabled(true);
+        cacheManager.createCache(UPDATE_TIMESTAMPS, timestamps);
+        return cacheManager;
+    }
+
+    /**
+     * Hand the cache manager to Hibernate's JCache region factory
+     * @param hibernateCacheManager the second-level cache manager
+     * @return the Hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
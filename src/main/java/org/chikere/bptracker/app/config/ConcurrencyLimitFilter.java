@@ -0,0 +1,78 @@
+package org.chikere.bptracker.app.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter bounding the number of requests processed at once.
+ * With virtual threads the container no longer caps concurrency through its thread pool, so without this
+ * every request would be let in and queue on the database connection pool instead. Requests beyond the limit
+ * wait briefly for a slot and are then answered with 503. Static resources and the health endpoint are not limited
+ * (so health checks keep working under overload), and long-lived
+ * event streams only hold a slot until the stream has been opened.
+ */
+@Component
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final Duration queueTimeout;
+
+    public ConcurrencyLimitFilter(@Value("${app.web.max-concurrent-requests:40}") int maxConcurrentRequests,
+                                  @Value("${app.web.queue-timeout:PT2S}") Duration queueTimeout) {
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.queueTimeout = queueTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/css/") || path.startsWith("/js/") || path.startsWith("/webjars/")
+                || path.startsWith("/images/") || path.equals("/actuator/health") || path.startsWith("/actuator/health/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            log.warn("Rejecting {} {}: too many concurrent requests", request.getMethod(), request.getRequestURI());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Get the number of requests that can still start without waiting
+     * @return the number of free slots
+     */
+    public int getAvailableSlots() {
+        return permits.availablePermits();
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDate;
@@ -38,6 +39,7 @@ public class DataInitializer {
      */
     @Bean
     @Profile("!prod")
+    @Order(0)
     public CommandLineRunner initData() {
         return args -> {
             log.info("Initializing sample data...");
@@ -0,0 +1,365 @@
+package org.chikere.bptracker.app.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.chikere.bptracker.app.model.BloodPressureRollup;
+import org.chikere.bptracker.app.model.Patient;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Seeds a large synthetic dataset for load and scale testing, enabled with the "seed" profile.
+ * Patients, readings and their rollups are written with JDBC batch inserts, bypassing the services,
+ * and readings follow a circadian blood pressure pattern per patient (nocturnal dip, morning surge,
+ * home measurements clustered around mornings and evenings, slow drift for some patients).
+ * The same random seed always produces the same patients and readings, relative to the time of seeding.
+ */
+@Configuration
+@Profile("seed")
+@RequiredArgsConstructor
+@Slf4j
+public class LargeDatasetSeeder {
+
+    /**
+     * Email domain of seeded patients, used to detect an already seeded database and to find seeded patients
+     */
+    public static final String EMAIL_DOMAIN = "@seed.example.com";
+
+    private static final String PATIENT_INSERT_SQL = "INSERT INTO patients " +
+            "(first_name, last_name, gender, date_of_birth, phone_number, email, address, medical_history, " +
+            "registration_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String READING_INSERT_SQL = "INSERT INTO blood_pressure_readings " +
+            "(patient_id, systolic, diastolic, heart_rate, reading_time, measurement_method, device_model, " +
+            "created_at, recorded_by, alert_level) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ROLLUP_INSERT_SQL = "INSERT INTO bp_rollups " +
+            "(patient_id, resolution, bucket_start, reading_count, systolic_min, systolic_max, systolic_sum, " +
+            "diastolic_min, diastolic_max, diastolic_sum, heart_rate_count, heart_rate_min, heart_rate_max, " +
+            "heart_rate_sum) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String[] MALE_FIRST_NAMES = {"James", "Robert", "John", "Michael", "David", "William",
+            "Richard", "Joseph", "Thomas", "Charles", "Daniel", "Matthew", "Anthony", "Mark", "Paul", "Steven",
+            "Andrew", "Kenneth", "Joshua", "Kevin", "Brian", "George", "Edward", "Chinedu", "Emeka", "Oluwaseun"};
+
+    private static final String[] FEMALE_FIRST_NAMES = {"Mary", "Patricia", "Jennifer", "Linda", "Elizabeth",
+            "Barbara", "Susan", "Jessica", "Sarah", "Karen", "Lisa", "Nancy", "Betty", "Margaret", "Sandra",
+            "Ashley", "Emily", "Donna", "Michelle", "Carol", "Amanda", "Melissa", "Ngozi", "Adaeze", "Funmilayo"};
+
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson",
+            "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris",
+            "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright",
+            "Scott", "Okafor", "Chikere", "Adeyemi", "Nwosu", "Mensah", "Okonkwo", "Kowalski", "Nguyen", "Patel"};
+
+    private static final String[] STREETS = {"Main St", "Oak Ave", "Pine Rd", "Elm St", "Maple Ave", "Cedar Ln",
+            "Park Blvd", "Lake Dr", "Hill St", "River Rd"};
+
+    private static final String[] DEVICE_MODELS = {"Omron M7 Intelli IT", "Withings BPM Connect", "A&D UA-651"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.seed.patients:10000}")
+    private int patientCount;
+
+    @Value("${app.seed.readings-per-patient:100}")
+    private int readingsPerPatient;
+
+    @Value("${app.seed.days:90}")
+    private int days;
+
+    @Value("${app.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${app.seed.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.seed.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.seed.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * Seed the dataset unless an earlier run already did.
+     * Runs after the sample data initializer, so seeded readings can be recorded by the default nurse user,
+     * and before the application is ready, so statistics, search indexes and rollup backfill see the seeded data.
+     * @return a CommandLineRunner that seeds the data
+     */
+    @Bean
+    @Order(1)
+    public CommandLineRunner seedData() {
+        return args -> {
+            Long seeded = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM patients WHERE email LIKE ?", Long.class, "%" + EMAIL_DOMAIN);
+            if (seeded != null && seeded > 0) {
+                log.info("Skipping dataset seeding, {} seeded patients already exist", seeded);
+                return;
+            }
+
+            log.info("Seeding {} patients with {} readings each over {} days (seed {})",
+                    patientCount, readingsPerPatient, days, randomSeed);
+            long start = System.currentTimeMillis();
+            Long recordedBy = jdbcTemplate.query("SELECT id FROM users WHERE username = 'nurse'",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+
+            List<Long> patientIds = insertPatients(end.toLocalDate());
+            insertReadings(patientIds, end, recordedBy);
+
+            // Rows written with JDBC are invisible to Hibernate, so cached entities and query results are dropped,
+            // and the planner gets statistics for the new table sizes
+            entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+            jdbcTemplate.execute("ANALYZE");
+
+            log.info("Seeded {} patients and {} readings in {} ms", patientIds.size(),
+                    (long) patientIds.size() * readingsPerPatient, System.currentTimeMillis() - start);
+        };
+    }
+
+    /**
+     * Insert all patients, in index order
+     * @param today the date of seeding
+     * @return the generated patient IDs, in index order
+     */
+    private List<Long> insertPatients(LocalDate today) {
+        List<Object[]> rows = new ArrayList<>(patientCount);
+        for (int index = 0; index < patientCount; index++) {
+            rows.add(patientRow(index, random(index, 0), today));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < rows.size(); from += batchSize) {
+                jdbcTemplate.batchUpdate(PATIENT_INSERT_SQL, rows.subList(from, Math.min(rows.size(), from + batchSize)),
+                        new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DATE, Types.VARCHAR, Types.VARCHAR,
+                                Types.VARCHAR, Types.VARCHAR, Types.DATE});
+            }
+        });
+
+        // Emails carry the patient index, which maps the generated IDs back to the generated profiles
+        Long[] ids = new Long[patientCount];
+        jdbcTemplate.query("SELECT id, email FROM patients WHERE email LIKE ?", rs -> {
+            String email = rs.getString(2);
+            ids[Integer.parseInt(email.substring("patient".length(), email.indexOf('@')))] = rs.getLong(1);
+        }, "%" + EMAIL_DOMAIN);
+        return List.of(ids);
+    }
+
+    private Object[] patientRow(int index, SplittableRandom random, LocalDate today) {
+        boolean female = random.nextBoolean();
+        String[] firstNames = female ? FEMALE_FIRST_NAMES : MALE_FIRST_NAMES;
+        // Ages 25 to 94, weighted towards older patients
+        int age = 25 + (int) (70 * Math.sqrt(random.nextDouble()));
+        return new Object[]{
+                firstNames[random.nextInt(firstNames.length)],
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                (female ? Patient.Gender.FEMALE : Patient.Gender.MALE).name(),
+                Date.valueOf(today.minusYears(age).minusDays(random.nextInt(365))),
+                String.format("+1555%07d", index),
+                "patient" + index + EMAIL_DOMAIN,
+                (1 + random.nextInt(999)) + " " + STREETS[random.nextInt(STREETS.length)] + ", Anytown, USA",
+                "Synthetic patient",
+                Date.valueOf(today.minusDays(days + random.nextInt(3 * 365)))
+        };
+    }
+
+    /**
+     * Generate and insert the readings and rollups of all patients, in chunks of patients spread over worker threads
+     */
+    private void insertReadings(List<Long> patientIds, LocalDateTime end, Long recordedBy) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism))) {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int from = 0; from < patientIds.size(); from += chunkSize) {
+                int chunkStart = from;
+                int chunkEnd = Math.min(patientIds.size(), from + chunkSize);
+                // One transaction per chunk; in auto-commit mode H2 commits every row of a batch separately
+                chunks.add(executor.submit(() -> transactionTemplate.executeWithoutResult(status ->
+                        insertReadingChunk(patientIds, chunkStart, chunkEnd, end, recordedBy))));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        }
+    }
+
+    private void insertReadingChunk(List<Long> patientIds, int from, int to, LocalDateTime end, Long recordedBy) {
+        List<BloodPressureReading> readings = new ArrayList<>((to - from) * readingsPerPatient);
+        List<BloodPressureRollup> rollups = new ArrayList<>();
+        for (int index = from; index < to; index++) {
+            Patient patient = new Patient();
+            patient.setId(patientIds.get(index));
+            List<BloodPressureReading> patientReadings = generateReadings(patient, random(index, 1), end);
+            readings.addAll(patientReadings);
+            rollups.addAll(rollup(patient.getId(), patientReadings));
+        }
+
+        jdbcTemplate.batchUpdate(READING_INSERT_SQL, readings, batchSize, (PreparedStatement ps, BloodPressureReading reading) -> {
+            ps.setLong(1, reading.getPatient().getId());
+            ps.setInt(2, reading.getSystolicPressure());
+            ps.setInt(3, reading.getDiastolicPressure());
+            ps.setInt(4, reading.getHeartRate());
+            ps.setTimestamp(5, Timestamp.valueOf(reading.getReadingTime()));
+            ps.setString(6, reading.getMeasurementMethod());
+            ps.setString(7, reading.getDeviceModel());
+            ps.setTimestamp(8, Timestamp.valueOf(reading.getCreatedAt()));
+            if (recordedBy != null) {
+                ps.setLong(9, recordedBy);
+            } else {
+                ps.setNull(9, Types.BIGINT);
+            }
+            ps.setString(10, reading.getAlertLevel().name());
+        });
+
+        jdbcTemplate.batchUpdate(ROLLUP_INSERT_SQL, rollups, batchSize, (PreparedStatement ps, BloodPressureRollup rollup) -> {
+            ps.setLong(1, rollup.getPatientId());
+            ps.setString(2, rollup.getResolution().name());
+            ps.setTimestamp(3, Timestamp.valueOf(rollup.getBucketStart()));
+            ps.setLong(4, rollup.getReadingCount());
+            ps.setInt(5, rollup.getSystolicMin());
+            ps.setInt(6, rollup.getSystolicMax());
+            ps.setLong(7, rollup.getSystolicSum());
+            ps.setInt(8, rollup.getDiastolicMin());
+            ps.setInt(9, rollup.getDiastolicMax());
+            ps.setLong(10, rollup.getDiastolicSum());
+            ps.setLong(11, rollup.getHeartRateCount());
+            ps.setInt(12, rollup.getHeartRateMin());
+            ps.setInt(13, rollup.getHeartRateMax());
+            ps.setLong(14, rollup.getHeartRateSum());
+        });
+    }
+
+    /**
+     * Generate one patient's readings, ordered by time.
+     * Each patient gets a baseline from a hypertension category, a nocturnal dip (a few are non-dippers),
+     * a morning surge after waking, and for one in ten patients a rising systolic drift over the period.
+     * @param patient the patient, with only its ID set
+     * @param random the patient's random generator
+     * @param end the time of seeding; all readings are at or before it
+     * @return the readings, classified
+     */
+    private List<BloodPressureReading> generateReadings(Patient patient, SplittableRandom random, LocalDateTime end) {
+        double category = random.nextDouble();
+        double systolicMean;
+        double diastolicMean;
+        if (category < 0.45) {
+            systolicMean = 117 + 7 * random.nextGaussian();
+            diastolicMean = 75 + 5 * random.nextGaussian();
+        } else if (category < 0.75) {
+            systolicMean = 132 + 6 * random.nextGaussian();
+            diastolicMean = 84 + 5 * random.nextGaussian();
+        } else if (category < 0.95) {
+            systolicMean = 148 + 9 * random.nextGaussian();
+            diastolicMean = 93 + 6 * random.nextGaussian();
+        } else {
+            systolicMean = 165 + 10 * random.nextGaussian();
+            diastolicMean = 102 + 7 * random.nextGaussian();
+        }
+        double heartRateMean = 72 + 8 * random.nextGaussian();
+        // Fraction of the daytime level lost at night; around 10% for most patients, none for non-dippers
+        double dip = Math.clamp(0.10 + 0.05 * random.nextGaussian(), -0.02, 0.22);
+        double morningSurge = Math.max(0, 8 + 7 * random.nextGaussian());
+        double driftPerDay = random.nextInt(10) == 0 ? 0.2 + 0.6 * random.nextDouble() : 0;
+        int wakeHour = 6 + random.nextInt(3);
+        String deviceModel = DEVICE_MODELS[random.nextInt(DEVICE_MODELS.length)];
+        LocalDateTime firstDay = end.truncatedTo(ChronoUnit.DAYS).minusDays(days - 1);
+
+        List<BloodPressureReading> readings = new ArrayList<>(readingsPerPatient);
+        for (int i = 0; i < readingsPerPatient; i++) {
+            int day = random.nextInt(days);
+            double slot = random.nextDouble();
+            boolean home = slot < 0.75;
+            // Home measurements after waking and in the evening, the rest at any hour (clinic and ambulatory)
+            int hour = slot < 0.4 ? wakeHour + random.nextInt(3) : home ? 19 + random.nextInt(4) : random.nextInt(24);
+            LocalDateTime readingTime = firstDay.plusDays(day).withHour(hour).withMinute(random.nextInt(60));
+            if (readingTime.isAfter(end)) {
+                readingTime = readingTime.minusDays(1);
+                day--;
+            }
+
+            double hourOfDay = hour + readingTime.getMinute() / 60.0;
+            // 1 in the afternoon, falling to 1 - dip around 2 am
+            double circadian = 1 - dip / 2 + dip / 2 * Math.cos(2 * Math.PI * (hourOfDay - 14) / 24);
+            double sinceWake = hourOfDay - wakeHour;
+            double surge = sinceWake >= 0 && sinceWake < 4 ? morningSurge * Math.exp(-sinceWake / 1.5) : 0;
+            double drift = driftPerDay * day;
+
+            int systolic = (int) Math.round(Math.clamp(
+                    systolicMean * circadian + surge + drift + 8 * random.nextGaussian(), 75, 240));
+            int diastolic = (int) Math.round(Math.clamp(
+                    diastolicMean * circadian + 0.6 * surge + 0.5 * drift + 5.5 * random.nextGaussian(), 45, Math.min(140, systolic - 15)));
+            int heartRate = (int) Math.round(Math.clamp(
+                    heartRateMean * (0.94 + 0.06 * Math.cos(2 * Math.PI * (hourOfDay - 14) / 24)) + 4 * random.nextGaussian(), 42, 160));
+
+            BloodPressureReading reading = new BloodPressureReading();
+            reading.setPatient(patient);
+            reading.setSystolicPressure(systolic);
+            reading.setDiastolicPressure(diastolic);
+            reading.setHeartRate(heartRate);
+            reading.setReadingTime(readingTime);
+            reading.setCreatedAt(readingTime);
+            reading.setMeasurementMethod(home ? "HOME" : "CLINIC");
+            reading.setDeviceModel(home ? deviceModel : null);
+            reading.calculateAlertLevel();
+            readings.add(reading);
+        }
+        readings.sort(Comparator.comparing(BloodPressureReading::getReadingTime));
+        return readings;
+    }
+
+    /**
+     * Build a patient's rollups at every resolution from its readings
+     */
+    private static List<BloodPressureRollup> rollup(Long patientId, List<BloodPressureReading> readings) {
+        Map<BloodPressureRollup.Resolution, Map<LocalDateTime, BloodPressureRollup>> buckets =
+                new EnumMap<>(BloodPressureRollup.Resolution.class);
+        for (BloodPressureReading reading : readings) {
+            for (BloodPressureRollup.Resolution resolution : BloodPressureRollup.Resolution.values()) {
+                LocalDateTime bucketStart = resolution.bucketStart(reading.getReadingTime());
+                buckets.computeIfAbsent(resolution, r -> new HashMap<>())
+                        .computeIfAbsent(bucketStart, start -> new BloodPressureRollup(patientId, resolution, start))
+                        .add(reading.getSystolicPressure(), reading.getDiastolicPressure(), reading.getHeartRate());
+            }
+        }
+        List<BloodPressureRollup> rollups = new ArrayList<>();
+        buckets.values().forEach(byStart -> rollups.addAll(byStart.values()));
+        return rollups;
+    }
+
+    /**
+     * Random generator for one patient, independent of chunking and thread scheduling
+     * @param patientIndex the patient index
+     * @param stream 0 for the patient's profile, 1 for its readings
+     * @return the generator
+     */
+    private SplittableRandom random(int patientIndex, int stream) {
+        return new SplittableRandom(randomSeed * 0x9E3779B97F4A7C15L + patientIndex * 2L + stream);
+    }
+}
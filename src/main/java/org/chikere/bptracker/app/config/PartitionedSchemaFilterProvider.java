@@ -0,0 +1,57 @@
+package org.chikere.bptracker.app.config;
+
+import org.hibernate.boot.model.relational.Namespace;
+import org.hibernate.boot.model.relational.Sequence;
+import org.hibernate.mapping.Table;
+import org.hibernate.tool.schema.spi.SchemaFilter;
+import org.hibernate.tool.schema.spi.SchemaFilterProvider;
+
+/**
+ * Schema filter for the "partitioned" profile, leaving blood_pressure_readings, its indexes and foreign keys
+ * to db/partitioned/schema.sql. Hibernate cannot read the indexes of a partitioned table through the JDBC
+ * driver, so it would otherwise try to create them again on every start.
+ */
+public class PartitionedSchemaFilterProvider implements SchemaFilterProvider, SchemaFilter {
+
+    private static final String READINGS_TABLE = "blood_pressure_readings";
+
+    @Override
+    public boolean includeNamespace(Namespace namespace) {
+        return true;
+    }
+
+    @Override
+    public boolean includeTable(Table table) {
+        return !READINGS_TABLE.equalsIgnoreCase(table.getName());
+    }
+
+    @Override
+    public boolean includeSequence(Sequence sequence) {
+        return true;
+    }
+
+    @Override
+    public SchemaFilter getCreateFilter() {
+        return this;
+    }
+
+    @Override
+    public SchemaFilter getDropFilter() {
+        return this;
+    }
+
+    @Override
+    public SchemaFilter getTruncatorFilter() {
+        return this;
+    }
+
+    @Override
+    public SchemaFilter getMigrateFilter() {
+        return this;
+    }
+
+    @Override
+    public SchemaFilter getValidateFilter() {
+        return this;
+    }
+}
@@ -2,16 +2,23 @@ package org.chikere.bptracker.app.config;
 
 import lombok.RequiredArgsConstructor;
 import org.chikere.bptracker.app.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
@@ -50,6 +57,46 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    /**
+     * Security filter chain for the actuator endpoints. Health is open to load balancers; the other endpoints,
+     * such as the Prometheus scrape endpoint, require HTTP Basic authentication as the metrics scrape account.
+     * Without a configured scrape password there is no scrape account and those endpoints are closed.
+     * @param http the HttpSecurity to configure
+     * @param scrapeUsername the username of the metrics scrape account
+     * @param scrapePassword the password of the metrics scrape account, or empty for none
+     * @return a SecurityFilterChain
+     * @throws Exception if an error occurs
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorSecurityFilterChain(HttpSecurity http,
+                                                           @Value("${app.metrics.scrape.username:prometheus}") String scrapeUsername,
+                                                           @Value("${app.metrics.scrape.password:}") String scrapePassword) throws Exception {
+        InMemoryUserDetailsManager scrapeAccounts = new InMemoryUserDetailsManager();
+        if (!scrapePassword.isEmpty()) {
+            scrapeAccounts.createUser(User.withUsername(scrapeUsername)
+                    .password(passwordEncoder.encode(scrapePassword))
+                    .roles("METRICS")
+                    .build());
+        }
+        DaoAuthenticationProvider scrapeProvider = new DaoAuthenticationProvider();
+        scrapeProvider.setUserDetailsService(scrapeAccounts);
+        scrapeProvider.setPasswordEncoder(passwordEncoder);
+
+        http
+            .securityMatcher("/actuator/**")
+            .csrf(AbstractHttpConfigurer::disable)
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .anyRequest().hasRole("METRICS")
+            )
+            .authenticationManager(new ProviderManager(scrapeProvider))
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+
+        return http.build();
+    }
+
     /**
      * Security filter chain bean
      * @param http the HttpSecurity to configure
@@ -71,6 +118,8 @@ public class SecurityConfig {
                 .defaultSuccessUrl("/dashboard")
                 .permitAll()
             )
+            // HTTP Basic lets device gateways call the bulk ingestion API without a browser session
+            .httpBasic(Customizer.withDefaults())
             .logout(logout -> logout
                 .logoutRequestMatcher(new AntPathRequestMatcher("/logout"))
                 .logoutSuccessUrl("/login?logout")
@@ -1,26 +1,37 @@
 package org.chikere.bptracker.app.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.chikere.bptracker.app.dto.ChartPoint;
+import org.chikere.bptracker.app.dto.CursorPage;
+import org.chikere.bptracker.app.dto.ReadingListItem;
 import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.chikere.bptracker.app.model.BloodPressureRollup;
 import org.chikere.bptracker.app.model.Patient;
 import org.chikere.bptracker.app.model.User;
 import org.chikere.bptracker.app.service.BloodPressureService;
 import org.chikere.bptracker.app.service.PatientService;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.chikere.bptracker.app.service.RollupService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,23 +43,29 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class BloodPressureController {
 
+    private static final DateTimeFormatter TIME_LABEL = DateTimeFormatter.ofPattern("MMM dd HH:mm");
+    private static final DateTimeFormatter DATE_LABEL = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+
     private final BloodPressureService bpService;
     private final PatientService patientService;
+    private final RollupService rollupService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Display the blood pressure reading list page for a patient
      * @param patientId the patient ID
-     * @param page the page number
-     * @param size the page size
+     * @param cursor the continuation token of the page to show, or null for the first page
+     * @param size the page size, clamped to 1..{@link CursorPage#MAX_SIZE}
      * @param model the model
      * @return the blood pressure reading list page view
      */
     @GetMapping("/patient/{patientId}")
     public String listReadingsForPatient(
             @PathVariable Long patientId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size,
             Model model) {
+        size = CursorPage.clampSize(size);
 
         Optional<Patient> patientOpt = patientService.getPatientById(patientId);
 
@@ -58,13 +75,17 @@ public class BloodPressureController {
         }
 
         Patient patient = patientOpt.get();
-        Page<BloodPressureReading> readingsPage = bpService.getReadingsForPatient(
-                patientId, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "readingTime")));
+        CursorPage<ReadingListItem> readingsPage;
+        try {
+            readingsPage = bpService.getReadingsForPatient(patientId, cursor, size);
+        } catch (IllegalArgumentException e) {
+            // Stale or tampered continuation token
+            return "redirect:/bp-readings/patient/" + patientId + "?size=" + size;
+        }
 
         model.addAttribute("patient", patient);
         model.addAttribute("readings", readingsPage);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", readingsPage.getTotalPages());
+        model.addAttribute("cursor", cursor);
 
         return "bp-readings/list";
     }
@@ -236,9 +257,10 @@ public class BloodPressureController {
     }
 
     /**
-     * Display the blood pressure chart page for a patient
+     * Display the blood pressure chart page for a patient.
+     * Short periods are charted from raw readings; longer periods from hourly, daily or weekly rollups.
      * @param patientId the patient ID
-     * @param period the time period to display (day, week, month, year)
+     * @param period the time period to display (day, week, month, year, all)
      * @param model the model
      * @return the blood pressure chart page view
      */
@@ -257,34 +279,103 @@ public class BloodPressureController {
 
         Patient patient = patientOpt.get();
         LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate;
+        List<ChartPoint> chartData;
 
-        // Determine the start date based on the period
+        // Determine the start date and bucket resolution based on the period
         switch (period) {
             case "day":
-                startDate = LocalDateTime.of(LocalDate.now(), LocalTime.MIDNIGHT);
-                break;
-            case "week":
-                startDate = endDate.minusWeeks(1);
+                LocalDateTime startOfDay = LocalDateTime.of(LocalDate.now(), LocalTime.MIDNIGHT);
+                chartData = bpService.getReadingsForPatientBetweenDates(patientId, startOfDay, endDate).stream()
+                        .sorted(Comparator.comparing(BloodPressureReading::getReadingTime))
+                        .map(reading -> ChartPoint.fromReading(reading, TIME_LABEL))
+                        .toList();
                 break;
             case "month":
-                startDate = endDate.minusMonths(1);
+                chartData = getRollupChartData(patientId, BloodPressureRollup.Resolution.HOUR, endDate.minusMonths(1), endDate, TIME_LABEL);
                 break;
             case "year":
-                startDate = endDate.minusYears(1);
+                chartData = getRollupChartData(patientId, BloodPressureRollup.Resolution.DAY, endDate.minusYears(1), endDate, DATE_LABEL);
+                break;
+            case "all":
+                chartData = rollupService.getRollups(patientId, BloodPressureRollup.Resolution.WEEK).stream()
+                        .map(rollup -> ChartPoint.fromRollup(rollup, DATE_LABEL))
+                        .toList();
                 break;
+            case "week":
             default:
-                startDate = endDate.minusWeeks(1);
+                chartData = getRollupChartData(patientId, BloodPressureRollup.Resolution.HOUR, endDate.minusWeeks(1), endDate, TIME_LABEL);
                 period = "week";
                 break;
         }
 
-        List<BloodPressureReading> readings = bpService.getReadingsForPatientBetweenDates(patientId, startDate, endDate);
-
         model.addAttribute("patient", patient);
-        model.addAttribute("readings", readings);
+        model.addAttribute("chartData", chartData);
         model.addAttribute("period", period);
 
         return "bp-readings/chart";
     }
+
+    /**
+     * Build chart points from a patient's rollups in a time range
+     * @param patientId the patient ID
+     * @param resolution the bucket resolution
+     * @param startDate the start of the range
+     * @param endDate the end of the range
+     * @param formatter the formatter for the point labels
+     * @return a list of chart points ordered by time
+     */
+    private List<ChartPoint> getRollupChartData(Long patientId, BloodPressureRollup.Resolution resolution,
+                                                LocalDateTime startDate, LocalDateTime endDate, DateTimeFormatter formatter) {
+        return rollupService.getRollups(patientId, resolution, startDate, endDate).stream()
+                .map(rollup -> ChartPoint.fromRollup(rollup, formatter))
+                .toList();
+    }
+
+    /**
+     * Stream the blood pressure chart data for a patient as a JSON array of reading points.
+     * Points are written as they are read from the database, optionally downsampled to a maximum count.
+     * @param patientId the patient ID
+     * @param period the time period to return (day, week, month, year, all)
+     * @param maxPoints the maximum number of points to return, or absent for all points
+     * @return the streamed JSON response, or 404 if the patient does not exist
+     */
+    @GetMapping(value = "/patient/{patientId}/chart-data", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<StreamingResponseBody> getChartData(
+            @PathVariable Long patientId,
+            @RequestParam(defaultValue = "week") String period,
+            @RequestParam(required = false) Integer maxPoints) {
+
+        if (patientService.getPatientById(patientId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (maxPoints != null && maxPoints < 3) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        LocalDateTime endDate = LocalDateTime.now();
+        LocalDateTime startDate = switch (period) {
+            case "day" -> LocalDateTime.of(LocalDate.now(), LocalTime.MIDNIGHT);
+            case "month" -> endDate.minusMonths(1);
+            case "year" -> endDate.minusYears(1);
+            case "all" -> LocalDateTime.of(LocalDate.EPOCH, LocalTime.MIDNIGHT);
+            default -> endDate.minusWeeks(1);
+        };
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                bpService.streamChartPoints(patientId, startDate, endDate, maxPoints, point -> {
+                    try {
+                        generator.writeObject(point);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
@@ -1,18 +1,23 @@
 package org.chikere.bptracker.app.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.chikere.bptracker.app.dto.CriticalReading;
+import org.chikere.bptracker.app.dto.PatientListItem;
 import org.chikere.bptracker.app.model.BloodPressureReading;
-import org.chikere.bptracker.app.model.Patient;
 import org.chikere.bptracker.app.model.User;
 import org.chikere.bptracker.app.service.BloodPressureService;
+import org.chikere.bptracker.app.service.LiveAlertHub;
 import org.chikere.bptracker.app.service.PatientService;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.chikere.bptracker.app.service.StatisticsService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -25,6 +30,8 @@ public class DashboardController {
 
     private final PatientService patientService;
     private final BloodPressureService bpService;
+    private final StatisticsService statisticsService;
+    private final LiveAlertHub liveAlertHub;
 
     /**
      * Display the main dashboard page
@@ -38,43 +45,41 @@ public class DashboardController {
         User currentUser = (User) auth.getPrincipal();
         
         // Get the 5 most recently registered patients
-        List<Patient> recentPatients = patientService.getAllPatients(
-                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "registrationDate"))).getContent();
+        List<PatientListItem> recentPatients = patientService.getRecentPatients(5);
         
         // Count total patients
-        long totalPatients = patientService.getAllPatients().size();
+        long totalPatients = statisticsService.getTotalPatients();
         
         // Get critical readings (if any)
-        List<BloodPressureReading> criticalReadings = getCriticalReadings();
+        List<CriticalReading> criticalReadings = getCriticalReadings();
         
         model.addAttribute("user", currentUser);
         model.addAttribute("recentPatients", recentPatients);
         model.addAttribute("totalPatients", totalPatients);
         model.addAttribute("criticalReadings", criticalReadings);
         model.addAttribute("hasCriticalReadings", !criticalReadings.isEmpty());
+        model.addAttribute("criticalReadingCount", statisticsService.getReadingCount(BloodPressureReading.AlertLevel.CRITICAL));
         
         return "dashboard";
     }
 
+    /**
+     * Stream new high and critical readings and trend alerts to the dashboard as Server-Sent Events
+     * @return the event stream, or 503 if too many dashboards are connected
+     */
+    @GetMapping(value = "/dashboard/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAlerts() {
+        return liveAlertHub.subscribe()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
     /**
      * Get critical blood pressure readings
      * @return a list of critical blood pressure readings
      */
-    private List<BloodPressureReading> getCriticalReadings() {
-        // In a real application, we would query for all critical readings
-        // For simplicity, we'll just get the first 10 patients and check their readings
-        List<Patient> patients = patientService.getAllPatients(
-                PageRequest.of(0, 10)).getContent();
-        
-        return patients.stream()
-                .flatMap(patient -> {
-                    try {
-                        return bpService.getCriticalReadingsForPatient(patient.getId()).stream();
-                    } catch (Exception e) {
-                        return java.util.stream.Stream.empty();
-                    }
-                })
-                .limit(5)
-                .toList();
+    private List<CriticalReading> getCriticalReadings() {
+        // Most recent critical readings across all patients, with patient names joined in the same query
+        return bpService.getRecentCriticalReadings(5);
     }
 }
\ No newline at end of file
@@ -2,11 +2,18 @@ package org.chikere.bptracker.app.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.chikere.bptracker.app.dto.CursorPage;
+import org.chikere.bptracker.app.dto.PatientListItem;
+import org.chikere.bptracker.app.dto.PatientSuggestion;
+import org.chikere.bptracker.app.model.BloodPressureReading;
 import org.chikere.bptracker.app.model.Patient;
+import org.chikere.bptracker.app.service.BloodPressureService;
 import org.chikere.bptracker.app.service.PatientService;
+import org.chikere.bptracker.app.service.StatisticsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -25,25 +32,41 @@ import java.util.Optional;
 public class PatientController {
 
     private final PatientService patientService;
+    private final StatisticsService statisticsService;
+    private final BloodPressureService bpService;
+
+    @Value("${app.patients.typeahead.limit:8}")
+    private int typeaheadLimit;
+
+    @Value("${app.patients.typeahead.max-limit:20}")
+    private int maxTypeaheadLimit;
+
+    @Value("${app.patients.recent-readings:3}")
+    private int recentReadingCount;
 
     /**
      * Display the patient list page
-     * @param page the page number
-     * @param size the page size
+     * @param cursor the continuation token of the page to show, or null for the first page
+     * @param size the page size, clamped to 1..{@link CursorPage#MAX_SIZE}
      * @param model the model
      * @return the patient list page view
      */
     @GetMapping
     public String listPatients(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size,
             Model model) {
-        Page<Patient> patientPage = patientService.getAllPatients(
-                PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "lastName", "firstName")));
+        size = CursorPage.clampSize(size);
+        CursorPage<PatientListItem> patientPage;
+        try {
+            patientPage = patientService.getPatientsPage(cursor, size);
+        } catch (IllegalArgumentException e) {
+            // Stale or tampered continuation token
+            return "redirect:/patients?size=" + size;
+        }
 
         model.addAttribute("patients", patientPage);
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", patientPage.getTotalPages());
+        model.addAttribute("cursor", cursor);
 
         return "patients/list";
     }
@@ -51,17 +74,39 @@ public class PatientController {
     /**
      * Search for patients by name
      * @param searchTerm the search term
+     * @param page the page number, at least 0
+     * @param size the page size, clamped to 1..{@link CursorPage#MAX_SIZE}
      * @param model the model
      * @return the patient search results page view
      */
     @GetMapping("/search")
-    public String searchPatients(@RequestParam String searchTerm, Model model) {
-        List<Patient> patients = patientService.searchPatientsByName(searchTerm);
+    public String searchPatients(
+            @RequestParam String searchTerm,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            Model model) {
+        Page<PatientListItem> patients = patientService.searchPatientsByName(searchTerm,
+                PageRequest.of(Math.max(0, page), CursorPage.clampSize(size)));
         model.addAttribute("patients", patients);
         model.addAttribute("searchTerm", searchTerm);
         return "patients/search-results";
     }
 
+    /**
+     * Suggest patients while a name, phone number or email is being typed
+     * @param q the text typed so far
+     * @param limit the maximum number of suggestions, capped at the configured maximum
+     * @return the matching patients as JSON
+     */
+    @GetMapping(value = "/typeahead", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<PatientSuggestion> typeahead(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) Integer limit) {
+        int size = limit == null ? typeaheadLimit : Math.max(1, Math.min(limit, maxTypeaheadLimit));
+        return patientService.suggestPatients(q, size);
+    }
+
     /**
      * Display the patient registration page
      * @param model the model
@@ -111,6 +156,7 @@ public class PatientController {
 
         if (patientOpt.isPresent()) {
             model.addAttribute("patient", patientOpt.get());
+            model.addAttribute("readingSummary", bpService.getReadingSummary(id, recentReadingCount));
             return "patients/view";
         } else {
             model.addAttribute("errorMessage", "Patient not found with ID: " + id);
@@ -191,11 +237,9 @@ public class PatientController {
     @GetMapping("/dashboard")
     public String showDashboard(Model model) {
         // Get the 5 most recently registered patients
-        Page<Patient> recentPatients = patientService.getAllPatients(
-                PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "registrationDate")));
-
-        model.addAttribute("recentPatients", recentPatients.getContent());
-        model.addAttribute("totalPatients", patientService.getAllPatients().size());
+        model.addAttribute("recentPatients", patientService.getRecentPatients(5));
+        model.addAttribute("totalPatients", statisticsService.getTotalPatients());
+        model.addAttribute("criticalReadingCount", statisticsService.getReadingCount(BloodPressureReading.AlertLevel.CRITICAL));
 
         return "dashboard";
     }
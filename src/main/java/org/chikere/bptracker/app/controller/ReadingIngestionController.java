@@ -0,0 +1,113 @@
+package org.chikere.bptracker.app.controller;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.chikere.bptracker.app.dto.BulkIngestResult;
+import org.chikere.bptracker.app.dto.BulkReadingRow;
+import org.chikere.bptracker.app.model.User;
+import org.chikere.bptracker.app.service.ReadingIngestionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Controller for bulk blood pressure reading ingestion from device gateways.
+ * Request bodies are parsed row by row and rejected as soon as they exceed the row limit,
+ * so an oversized upload is never held in memory as a whole.
+ */
+@RestController
+@RequestMapping("/bp-readings/bulk")
+@RequiredArgsConstructor
+public class ReadingIngestionController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ReadingIngestionService ingestionService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.bulk.max-rows:5000}")
+    private int maxRows;
+
+    /**
+     * Ingest a JSON array of readings.
+     * Null elements are reported as rejected rows; a body that is not a JSON array of readings is rejected as a whole.
+     * @param body the request body
+     * @return the per-row ingestion results
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkIngestResult> ingestJson(InputStream body) throws IOException {
+        List<BulkReadingRow> rows = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return ResponseEntity.badRequest().build();
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    return ResponseEntity.badRequest().build();
+                }
+                if (rows.size() == maxRows) {
+                    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+                }
+                rows.add(objectMapper.readValue(parser, BulkReadingRow.class));
+            }
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ingest(rows);
+    }
+
+    /**
+     * Ingest newline-delimited JSON readings, one object per line.
+     * Lines that cannot be parsed are reported as rejected rows.
+     * @param body the request body
+     * @return the per-row ingestion results
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(consumes = NDJSON, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkIngestResult> ingestNdjson(InputStream body) throws IOException {
+        List<BulkReadingRow> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (rows.size() == maxRows) {
+                    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+                }
+                try {
+                    rows.add(objectMapper.readValue(line, BulkReadingRow.class));
+                } catch (JsonProcessingException e) {
+                    rows.add(null);
+                }
+            }
+        }
+        return ingest(rows);
+    }
+
+    private ResponseEntity<BulkIngestResult> ingest(List<BulkReadingRow> rows) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User currentUser = (User) auth.getPrincipal();
+
+        return ResponseEntity.ok(ingestionService.ingest(rows, currentUser));
+    }
+}
@@ -0,0 +1,33 @@
+package org.chikere.bptracker.app.dto;
+
+import org.chikere.bptracker.app.model.BloodPressureReading;
+
+import java.util.List;
+
+/**
+ * Result of a bulk reading ingestion request
+ * @param received the number of rows received
+ * @param accepted the number of rows stored
+ * @param rejected the number of rows rejected
+ * @param rows the per-row results, in request order
+ */
+public record BulkIngestResult(int received, int accepted, int rejected, List<RowResult> rows) {
+
+    /**
+     * Result for a single row
+     * @param index the zero-based position of the row in the request
+     * @param status whether the row was stored
+     * @param alertLevel the computed alert level, or null if the row was rejected
+     * @param errors the validation errors, empty if the row was stored
+     */
+    public record RowResult(int index, Status status, BloodPressureReading.AlertLevel alertLevel, List<String> errors) {
+    }
+
+    /**
+     * Enum representing the outcome for a row
+     */
+    public enum Status {
+        ACCEPTED,
+        REJECTED
+    }
+}
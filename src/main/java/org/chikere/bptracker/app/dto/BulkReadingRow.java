@@ -0,0 +1,38 @@
+package org.chikere.bptracker.app.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A single reading submitted to the bulk ingestion endpoint by a device gateway
+ * @param patientId the ID of the patient the reading belongs to
+ * @param systolicPressure the systolic pressure
+ * @param diastolicPressure the diastolic pressure
+ * @param heartRate the heart rate
+ * @param weightKg the weight in kilograms
+ * @param spo2Percentage the SpO2 percentage
+ * @param notes free-text notes
+ * @param readingTime the time the reading was taken, or null for the time of ingestion
+ * @param measurementMethod the measurement method
+ * @param armUsed the arm used
+ * @param bodyPosition the body position
+ * @param activityBefore the activity before the reading
+ * @param deviceId the device ID
+ * @param deviceModel the device model
+ */
+public record BulkReadingRow(
+        Long patientId,
+        Integer systolicPressure,
+        Integer diastolicPressure,
+        Integer heartRate,
+        BigDecimal weightKg,
+        BigDecimal spo2Percentage,
+        String notes,
+        LocalDateTime readingTime,
+        String measurementMethod,
+        String armUsed,
+        String bodyPosition,
+        String activityBefore,
+        String deviceId,
+        String deviceModel) {
+}
@@ -0,0 +1,49 @@
+package org.chikere.bptracker.app.dto;
+
+import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.chikere.bptracker.app.model.BloodPressureRollup;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A single point on the blood pressure chart, as rendered by bp-readings/chart.html
+ * @param date the formatted label for the point
+ * @param systolic the (mean) systolic pressure
+ * @param diastolic the (mean) diastolic pressure
+ * @param heartRate the (mean) heart rate, or null if not recorded
+ */
+public record ChartPoint(String date, double systolic, double diastolic, Double heartRate) {
+
+    /**
+     * Create a chart point from a single reading
+     * @param reading the reading
+     * @param formatter the formatter for the point label
+     * @return the chart point
+     */
+    public static ChartPoint fromReading(BloodPressureReading reading, DateTimeFormatter formatter) {
+        return new ChartPoint(
+                formatter.format(reading.getReadingTime()),
+                reading.getSystolicPressure(),
+                reading.getDiastolicPressure(),
+                reading.getHeartRate() == null ? null : reading.getHeartRate().doubleValue());
+    }
+
+    /**
+     * Create a chart point from the means of a rollup bucket
+     * @param rollup the rollup
+     * @param formatter the formatter for the point label
+     * @return the chart point
+     */
+    public static ChartPoint fromRollup(BloodPressureRollup rollup, DateTimeFormatter formatter) {
+        Double heartRate = rollup.getHeartRateMean();
+        return new ChartPoint(
+                formatter.format(rollup.getBucketStart()),
+                round(rollup.getSystolicMean()),
+                round(rollup.getDiastolicMean()),
+                heartRate == null ? null : round(heartRate));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,17 @@
+package org.chikere.bptracker.app.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a critical reading with its patient's name, for the dashboard
+ * @param id the reading ID
+ * @param patientId the patient ID
+ * @param patientFirstName the patient's first name
+ * @param patientLastName the patient's last name
+ * @param systolicPressure the systolic pressure
+ * @param diastolicPressure the diastolic pressure
+ * @param readingTime the time of the reading
+ */
+public record CriticalReading(Long id, Long patientId, String patientFirstName, String patientLastName,
+                              int systolicPressure, int diastolicPressure, LocalDateTime readingTime) {
+}
@@ -0,0 +1,121 @@
+package org.chikere.bptracker.app.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Unlike a Page, it carries no total count, so fetching it
+ * needs no COUNT query; the next page is requested with an opaque continuation token.
+ * @param content the items on this page
+ * @param nextCursor the token for the next page, or null if this is the last page
+ * @param size the requested page size
+ * @param <T> the item type
+ */
+public record CursorPage<T>(List<T> content, String nextCursor, int size) {
+
+    /**
+     * Largest page size served; requested sizes are clamped to 1..MAX_SIZE
+     */
+    public static final int MAX_SIZE = 100;
+
+    private static final String SEPARATOR = "\u001F";
+
+    /**
+     * Clamp a requested page size to the supported range
+     * @param size the requested page size
+     * @return the size, at least 1 and at most {@link #MAX_SIZE}
+     */
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Get the number of rows to fetch for a page: one more than the page size, see {@link #of}
+     * @param size the page size, from 1 to {@link #MAX_SIZE}
+     * @return the number of rows to fetch
+     * @throws IllegalArgumentException if the page size is out of range
+     */
+    public static int fetchSize(int size) {
+        checkSize(size);
+        return size + 1;
+    }
+
+    /**
+     * Build a page from a query result fetched with a limit of one more than the page size,
+     * so the presence of a further page is known without counting
+     * @param rows the query result, at most size + 1 rows
+     * @param size the page size, from 1 to {@link #MAX_SIZE}
+     * @param cursorOf produces the token positioned after a row
+     * @param <T> the item type
+     * @return the page
+     * @throws IllegalArgumentException if the page size is out of range
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        checkSize(size);
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, size);
+        }
+        List<T> content = rows.subList(0, size);
+        return new CursorPage<>(content, cursorOf.apply(content.get(size - 1)), size);
+    }
+
+    private static void checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Invalid page size: " + size);
+        }
+    }
+
+    /**
+     * Encode sort key values as an opaque, URL-safe continuation token
+     * @param keys the sort key values of the last row on a page
+     * @return the token
+     */
+    public static String encodeCursor(Object... keys) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                joined.append(SEPARATOR);
+            }
+            joined.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a continuation token into its sort key values
+     * @param cursor the token
+     * @param keyCount the expected number of sort keys
+     * @return the sort key values as strings
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static String[] decodeCursor(String cursor, int keyCount) {
+        String[] keys;
+        try {
+            keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+        if (keys.length != keyCount) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+        }
+        return keys;
+    }
+
+    /**
+     * Check if there is a page after this one
+     * @return true if a next page exists
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Get the number of items on this page
+     * @return the number of items
+     */
+    public int numberOfElements() {
+        return content.size();
+    }
+}
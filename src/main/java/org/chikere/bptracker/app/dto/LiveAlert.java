@@ -0,0 +1,26 @@
+package org.chikere.bptracker.app.dto;
+
+import org.chikere.bptracker.app.model.BloodPressureReading;
+
+import java.time.LocalDateTime;
+
+/**
+ * Alert pushed to connected dashboards
+ * @param type the kind of alert
+ * @param patientId the patient the alert is about
+ * @param readingId the reading that triggered the alert, or null if none or not known
+ * @param alertLevel the alert level of the reading, or null for trend alerts
+ * @param message the text shown on the dashboard
+ * @param time when the alert was raised
+ */
+public record LiveAlert(Type type, Long patientId, Long readingId, BloodPressureReading.AlertLevel alertLevel,
+                        String message, LocalDateTime time) {
+
+    /**
+     * Kinds of live alert
+     */
+    public enum Type {
+        READING,
+        TREND
+    }
+}
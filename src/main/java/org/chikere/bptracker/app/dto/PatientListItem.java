@@ -0,0 +1,20 @@
+package org.chikere.bptracker.app.dto;
+
+import org.chikere.bptracker.app.model.Patient;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of a patient with the columns shown in patient lists
+ * @param id the patient ID
+ * @param firstName the first name
+ * @param lastName the last name
+ * @param gender the gender
+ * @param dateOfBirth the date of birth
+ * @param phoneNumber the phone number
+ * @param email the email address
+ * @param registrationDate the registration date
+ */
+public record PatientListItem(Long id, String firstName, String lastName, Patient.Gender gender, LocalDate dateOfBirth,
+                              String phoneNumber, String email, LocalDate registrationDate) {
+}
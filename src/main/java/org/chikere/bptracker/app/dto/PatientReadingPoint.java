@@ -0,0 +1,16 @@
+package org.chikere.bptracker.app.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight projection of a blood pressure reading's time series values, tagged with its patient.
+ * Used when readings for many patients are fetched in one query.
+ * @param patientId the patient ID
+ * @param readingId the reading ID
+ * @param readingTime the time of the reading
+ * @param systolic the systolic pressure
+ * @param diastolic the diastolic pressure
+ * @param heartRate the heart rate, or null if not recorded
+ */
+public record PatientReadingPoint(Long patientId, Long readingId, LocalDateTime readingTime, int systolic, int diastolic, Integer heartRate) {
+}
@@ -0,0 +1,12 @@
+package org.chikere.bptracker.app.dto;
+
+/**
+ * Patient lookup suggestion returned by the typeahead endpoint
+ * @param id the patient ID
+ * @param firstName the first name
+ * @param lastName the last name
+ * @param phoneNumber the phone number, or null
+ * @param email the email address, or null
+ */
+public record PatientSuggestion(Long id, String firstName, String lastName, String phoneNumber, String email) {
+}
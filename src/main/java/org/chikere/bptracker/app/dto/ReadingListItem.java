@@ -0,0 +1,19 @@
+package org.chikere.bptracker.app.dto;
+
+import org.chikere.bptracker.app.model.BloodPressureReading;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a reading with the columns shown in a patient's reading list
+ * @param id the reading ID
+ * @param readingTime the time of the reading
+ * @param systolicPressure the systolic pressure
+ * @param diastolicPressure the diastolic pressure
+ * @param heartRate the heart rate, or null if not measured
+ * @param alertLevel the alert level of the reading
+ * @param notes the notes, or null if none
+ */
+public record ReadingListItem(Long id, LocalDateTime readingTime, int systolicPressure, int diastolicPressure,
+                              Integer heartRate, BloodPressureReading.AlertLevel alertLevel, String notes) {
+}
@@ -0,0 +1,13 @@
+package org.chikere.bptracker.app.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight projection of a blood pressure reading's time series values
+ * @param readingTime the time of the reading
+ * @param systolic the systolic pressure
+ * @param diastolic the diastolic pressure
+ * @param heartRate the heart rate, or null if not recorded
+ */
+public record ReadingPoint(LocalDateTime readingTime, int systolic, int diastolic, Integer heartRate) {
+}
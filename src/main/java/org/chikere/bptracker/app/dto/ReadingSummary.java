@@ -0,0 +1,30 @@
+package org.chikere.bptracker.app.dto;
+
+import org.chikere.bptracker.app.model.BloodPressureReading;
+
+import java.util.List;
+
+/**
+ * Summary of a patient's readings: the total count and the most recent readings, newest first
+ * @param readingCount the total number of readings
+ * @param recentReadings the most recent readings, newest first
+ */
+public record ReadingSummary(long readingCount, List<RecentReading> recentReadings) {
+
+    /**
+     * Get the most recent reading
+     * @return the most recent reading, or null if there are none
+     */
+    public RecentReading lastReading() {
+        return recentReadings.isEmpty() ? null : recentReadings.get(0);
+    }
+
+    /**
+     * Get the alert level of the most recent reading
+     * @return the alert level, or null if there are no readings
+     */
+    public BloodPressureReading.AlertLevel lastAlertLevel() {
+        RecentReading last = lastReading();
+        return last == null ? null : last.alertLevel();
+    }
+}
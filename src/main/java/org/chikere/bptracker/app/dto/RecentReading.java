@@ -0,0 +1,17 @@
+package org.chikere.bptracker.app.dto;
+
+import org.chikere.bptracker.app.model.BloodPressureReading;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight projection of a reading for short "recent readings" lists
+ * @param id the reading ID
+ * @param systolicPressure the systolic pressure
+ * @param diastolicPressure the diastolic pressure
+ * @param readingTime the time of the reading
+ * @param alertLevel the alert level of the reading
+ */
+public record RecentReading(Long id, int systolicPressure, int diastolicPressure, LocalDateTime readingTime,
+                            BloodPressureReading.AlertLevel alertLevel) {
+}
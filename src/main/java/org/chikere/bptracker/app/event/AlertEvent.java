@@ -0,0 +1,31 @@
+package org.chikere.bptracker.app.event;
+
+/**
+ * Event describing an alert to deliver once the transaction that raised it has committed.
+ * It carries a snapshot of everything needed for delivery, so dispatch never touches the persistence context.
+ * @param type the kind of alert
+ * @param patientId the patient the alert is about
+ * @param readingId the reading that triggered the alert, or null if none or not yet known
+ * @param logMessage the message written to the application log
+ * @param phoneNumber the recipient's phone number, or null if the patient has none
+ * @param smsMessage the text message to send to the recipient
+ */
+public record AlertEvent(Type type, Long patientId, Long readingId, String logMessage,
+                         String phoneNumber, String smsMessage) {
+
+    /**
+     * Kinds of alert
+     */
+    public enum Type {
+        HIGH_BP,
+        ABNORMAL_TREND
+    }
+
+    /**
+     * Check whether the alert has an SMS recipient
+     * @return true if a phone number is present
+     */
+    public boolean hasRecipient() {
+        return phoneNumber != null && !phoneNumber.isEmpty();
+    }
+}
@@ -0,0 +1,20 @@
+package org.chikere.bptracker.app.event;
+
+import org.chikere.bptracker.app.model.BloodPressureReading;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event describing a newly recorded reading at a high or critical alert level, pushed to live dashboards after commit.
+ * @param readingId the reading ID, or null if not known (e.g. readings inserted in a JDBC batch)
+ * @param patientId the patient the reading belongs to
+ * @param patientName the patient's full name
+ * @param systolicPressure the systolic pressure
+ * @param diastolicPressure the diastolic pressure
+ * @param alertLevel the alert level of the reading
+ * @param readingTime when the reading was taken
+ */
+public record ReadingAlertEvent(Long readingId, Long patientId, String patientName, int systolicPressure,
+                                int diastolicPressure, BloodPressureReading.AlertLevel alertLevel,
+                                LocalDateTime readingTime) {
+}
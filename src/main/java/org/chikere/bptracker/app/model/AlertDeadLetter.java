@@ -0,0 +1,66 @@
+package org.chikere.bptracker.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.chikere.bptracker.app.event.AlertEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording an alert that could not be delivered after all retry attempts
+ */
+@Entity
+@Table(name = "alert_dead_letters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "alert_type", nullable = false, length = 20)
+    private AlertEvent.Type alertType;
+
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Column(name = "reading_id")
+    private Long readingId;
+
+    @Column(name = "phone_number")
+    private String phoneNumber;
+
+    @Column(length = 1000)
+    private String message;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Create a dead letter for an undeliverable alert
+     * @param event the alert event
+     * @param attempts the number of delivery attempts made
+     * @param lastError the reason the last attempt failed
+     */
+    public AlertDeadLetter(AlertEvent event, int attempts, String lastError) {
+        this.alertType = event.type();
+        this.patientId = event.patientId();
+        this.readingId = event.readingId();
+        this.phoneNumber = event.phoneNumber();
+        this.message = event.smsMessage();
+        this.attempts = attempts;
+        this.lastError = lastError != null && lastError.length() > 500 ? lastError.substring(0, 500) : lastError;
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -7,7 +7,9 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -16,7 +18,11 @@ import java.time.LocalDateTime;
  * Entity representing a blood pressure reading for a patient
  */
 @Entity
-@Table(name = "blood_pressure_readings")
+@Table(name = "blood_pressure_readings", indexes = {
+        @Index(name = "idx_bp_readings_alert_level_time", columnList = "alert_level, reading_time"),
+        @Index(name = "idx_bp_readings_patient_time", columnList = "patient_id, reading_time DESC, id DESC"),
+        @Index(name = "idx_bp_readings_patient_alert_level", columnList = "patient_id, alert_level")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,6 +34,8 @@ public class BloodPressureReading {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Patient patient;
 
     @NotNull(message = "Systolic pressure is required")
@@ -90,6 +98,8 @@ public class BloodPressureReading {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recorded_by")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User recordedBy;
 
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,165 @@
+package org.chikere.bptracker.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Entity holding pre-aggregated blood pressure statistics for one patient over one time bucket
+ */
+@Entity
+@Table(name = "bp_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_bp_rollups_bucket", columnNames = {"patient_id", "resolution", "bucket_start"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloodPressureRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_id", nullable = false)
+    private Long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Resolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "reading_count", nullable = false)
+    private long readingCount;
+
+    @Column(name = "systolic_min")
+    private Integer systolicMin;
+
+    @Column(name = "systolic_max")
+    private Integer systolicMax;
+
+    @Column(name = "systolic_sum", nullable = false)
+    private long systolicSum;
+
+    @Column(name = "diastolic_min")
+    private Integer diastolicMin;
+
+    @Column(name = "diastolic_max")
+    private Integer diastolicMax;
+
+    @Column(name = "diastolic_sum", nullable = false)
+    private long diastolicSum;
+
+    @Column(name = "heart_rate_count", nullable = false)
+    private long heartRateCount;
+
+    @Column(name = "heart_rate_min")
+    private Integer heartRateMin;
+
+    @Column(name = "heart_rate_max")
+    private Integer heartRateMax;
+
+    @Column(name = "heart_rate_sum", nullable = false)
+    private long heartRateSum;
+
+    /**
+     * Create an empty rollup for a bucket
+     * @param patientId the patient ID
+     * @param resolution the bucket resolution
+     * @param bucketStart the start of the bucket
+     */
+    public BloodPressureRollup(Long patientId, Resolution resolution, LocalDateTime bucketStart) {
+        this.patientId = patientId;
+        this.resolution = resolution;
+        this.bucketStart = bucketStart;
+    }
+
+    /**
+     * Enum representing the size of a rollup bucket
+     */
+    public enum Resolution {
+        HOUR,
+        DAY,
+        WEEK;
+
+        /**
+         * Get the start of the bucket containing a point in time
+         * @param time the point in time
+         * @return the start of the bucket
+         */
+        public LocalDateTime bucketStart(LocalDateTime time) {
+            return switch (this) {
+                case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+                case WEEK -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            };
+        }
+
+        /**
+         * Get the start of the bucket following the one starting at the given time
+         * @param bucketStart the start of a bucket
+         * @return the start of the next bucket
+         */
+        public LocalDateTime nextBucketStart(LocalDateTime bucketStart) {
+            return switch (this) {
+                case HOUR -> bucketStart.plusHours(1);
+                case DAY -> bucketStart.plusDays(1);
+                case WEEK -> bucketStart.plusWeeks(1);
+            };
+        }
+    }
+
+    /**
+     * Fold a single reading into this bucket
+     * @param systolic the systolic pressure
+     * @param diastolic the diastolic pressure
+     * @param heartRate the heart rate, or null if not recorded
+     */
+    public void add(int systolic, int diastolic, Integer heartRate) {
+        readingCount++;
+        systolicSum += systolic;
+        systolicMin = systolicMin == null ? systolic : Math.min(systolicMin, systolic);
+        systolicMax = systolicMax == null ? systolic : Math.max(systolicMax, systolic);
+        diastolicSum += diastolic;
+        diastolicMin = diastolicMin == null ? diastolic : Math.min(diastolicMin, diastolic);
+        diastolicMax = diastolicMax == null ? diastolic : Math.max(diastolicMax, diastolic);
+
+        if (heartRate != null) {
+            heartRateCount++;
+            heartRateSum += heartRate;
+            heartRateMin = heartRateMin == null ? heartRate : Math.min(heartRateMin, heartRate);
+            heartRateMax = heartRateMax == null ? heartRate : Math.max(heartRateMax, heartRate);
+        }
+    }
+
+    /**
+     * Get the mean systolic pressure in this bucket
+     * @return the mean systolic pressure
+     */
+    public double getSystolicMean() {
+        return readingCount == 0 ? 0 : (double) systolicSum / readingCount;
+    }
+
+    /**
+     * Get the mean diastolic pressure in this bucket
+     * @return the mean diastolic pressure
+     */
+    public double getDiastolicMean() {
+        return readingCount == 0 ? 0 : (double) diastolicSum / readingCount;
+    }
+
+    /**
+     * Get the mean heart rate in this bucket
+     * @return the mean heart rate, or null if no reading in this bucket recorded a heart rate
+     */
+    public Double getHeartRateMean() {
+        return heartRateCount == 0 ? null : (double) heartRateSum / heartRateCount;
+    }
+}
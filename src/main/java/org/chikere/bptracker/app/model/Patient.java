@@ -7,7 +7,11 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -17,7 +21,12 @@ import java.util.List;
  * Entity representing a patient in the system
  */
 @Entity
-@Table(name = "patients")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "patients")
+@Table(name = "patients", indexes = {
+        @Index(name = "idx_patients_name", columnList = "last_name, first_name, id"),
+        @Index(name = "idx_patients_phone_number", columnList = "phone_number")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -59,6 +68,8 @@ public class Patient {
     private LocalDate registrationDate = LocalDate.now();
 
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, orphanRemoval = true)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<BloodPressureReading> bpReadings = new ArrayList<>();
 
     /**
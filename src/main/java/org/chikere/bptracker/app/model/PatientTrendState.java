@@ -0,0 +1,106 @@
+package org.chikere.bptracker.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity holding the running trend analysis state for one patient.
+ * The state keeps the patient's readings over the analysis window in packed form, so each analysis run only has to
+ * fold in readings added since the previous one, and a long-term baseline: a moving mean and variance of every
+ * reading once it is older than the recent segment the trend model tests against it.
+ * The version guards against a sweep overwriting a state that was marked stale while it was being analyzed.
+ */
+@Entity
+@Table(name = "patient_trend_states")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientTrendState {
+
+    @Id
+    @Column(name = "patient_id")
+    private Long patientId;
+
+    @Version
+    private Long version;
+
+    @Column(name = "last_reading_id", nullable = false)
+    private long lastReadingId;
+
+    // Up to 4096 readings of 20 bytes each
+    @Column(name = "window_readings", length = 81_920)
+    private byte[] windowReadings;
+
+    @Column(name = "window_stale", nullable = false)
+    private boolean windowStale;
+
+    @Column(name = "baseline_readings", nullable = false)
+    private long baselineReadings;
+
+    @Column(name = "baseline_through")
+    private LocalDateTime baselineThrough;
+
+    @Column(name = "systolic_baseline", nullable = false)
+    private double systolicBaseline;
+
+    @Column(name = "diastolic_baseline", nullable = false)
+    private double diastolicBaseline;
+
+    @Column(name = "systolic_variance", nullable = false)
+    private double systolicVariance;
+
+    @Column(name = "diastolic_variance", nullable = false)
+    private double diastolicVariance;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Create an empty state for a patient
+     * @param patientId the patient ID
+     */
+    public PatientTrendState(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    /**
+     * Fold a reading into the baseline, an exponentially weighted mean and variance.
+     * Until the baseline has seen 1 / alpha readings, each reading is weighted 1 / n instead, which makes the
+     * baseline the plain mean and variance of the readings so far while it is bootstrapped.
+     * @param systolic the systolic pressure
+     * @param diastolic the diastolic pressure
+     * @param alpha the smoothing factor of the baseline
+     */
+    public void foldBaseline(int systolic, int diastolic, double alpha) {
+        baselineReadings++;
+        double weight = Math.max(alpha, 1.0 / baselineReadings);
+
+        double systolicDiff = systolic - systolicBaseline;
+        systolicBaseline += weight * systolicDiff;
+        systolicVariance = (1 - weight) * (systolicVariance + weight * systolicDiff * systolicDiff);
+
+        double diastolicDiff = diastolic - diastolicBaseline;
+        diastolicBaseline += weight * diastolicDiff;
+        diastolicVariance = (1 - weight) * (diastolicVariance + weight * diastolicDiff * diastolicDiff);
+    }
+
+    /**
+     * Get the standard deviation of systolic readings around the baseline
+     * @return the exponentially weighted systolic standard deviation
+     */
+    public double getSystolicStdDev() {
+        return Math.sqrt(systolicVariance);
+    }
+
+    /**
+     * Get the standard deviation of diastolic readings around the baseline
+     * @return the exponentially weighted diastolic standard deviation
+     */
+    public double getDiastolicStdDev() {
+        return Math.sqrt(diastolicVariance);
+    }
+}
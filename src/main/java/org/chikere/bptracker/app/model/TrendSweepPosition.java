@@ -0,0 +1,40 @@
+package org.chikere.bptracker.app.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity recording where the scheduled trend analysis sweep resumes scanning readings.
+ * Reading IDs are allocated when a reading is inserted but become visible when its transaction commits, so a sweep
+ * can see a higher ID before a lower one. Each sweep therefore starts from the end of the sweep before the previous
+ * one, re-scanning the readings the previous sweep saw, and never past readings of patients whose analysis failed.
+ * Readings already in a patient's stored window are skipped, so re-scanned readings are not analyzed twice.
+ */
+@Entity
+@Table(name = "trend_sweep_positions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendSweepPosition {
+
+    /**
+     * The ID of the single sweep position row
+     */
+    public static final int SWEEP_ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "scan_from_id", nullable = false)
+    private long scanFromId;
+
+    @Column(name = "last_scanned_id", nullable = false)
+    private long lastScannedId;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package org.chikere.bptracker.app.repository;
+
+import org.chikere.bptracker.app.model.AlertDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for undeliverable alerts
+ */
+@Repository
+public interface AlertDeadLetterRepository extends JpaRepository<AlertDeadLetter, Long> {
+
+    /**
+     * Find the dead letters for a patient, newest first
+     * @param patientId the patient ID
+     * @return a list of dead letters
+     */
+    List<AlertDeadLetter> findByPatientIdOrderByCreatedAtDesc(Long patientId);
+}
@@ -1,15 +1,27 @@
 package org.chikere.bptracker.app.repository;
 
+import jakarta.persistence.QueryHint;
+import org.chikere.bptracker.app.dto.CriticalReading;
+import org.chikere.bptracker.app.dto.PatientReadingPoint;
+import org.chikere.bptracker.app.dto.ReadingListItem;
+import org.chikere.bptracker.app.dto.ReadingPoint;
+import org.chikere.bptracker.app.dto.RecentReading;
 import org.chikere.bptracker.app.model.BloodPressureReading;
-import org.chikere.bptracker.app.model.Patient;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for BloodPressureReading entity
@@ -19,55 +31,248 @@ public interface BloodPressureReadingRepository extends JpaRepository<BloodPress
     
     /**
      * Find all readings for a patient
-     * @param patient the patient
+     * @param patientId the patient ID
      * @return a list of blood pressure readings for the patient
      */
-    List<BloodPressureReading> findByPatient(Patient patient);
+    @Query("SELECT r FROM BloodPressureReading r WHERE r.patient.id = :patientId")
+    List<BloodPressureReading> findByPatientId(Long patientId);
     
     /**
      * Find all readings for a patient, paginated
-     * @param patient the patient
+     * @param patientId the patient ID
      * @param pageable pagination information
      * @return a page of blood pressure readings for the patient
      */
-    Page<BloodPressureReading> findByPatient(Patient patient, Pageable pageable);
+    @Query(value = "SELECT r FROM BloodPressureReading r WHERE r.patient.id = :patientId",
+            countQuery = "SELECT COUNT(r) FROM BloodPressureReading r WHERE r.patient.id = :patientId")
+    Page<BloodPressureReading> findByPatientId(Long patientId, Pageable pageable);
     
+    /**
+     * Find a patient's most recent readings as lightweight projections
+     * @param patientId the patient ID
+     * @param limit the maximum number of readings
+     * @return a list of recent readings, newest first
+     */
+    @Query("SELECT new org.chikere.bptracker.app.dto.RecentReading(r.id, r.systolicPressure, r.diastolicPressure, r.readingTime, r.alertLevel) " +
+            "FROM BloodPressureReading r WHERE r.patient.id = :patientId ORDER BY r.readingTime DESC, r.id DESC")
+    List<RecentReading> findRecentByPatientId(Long patientId, Limit limit);
+
+    /**
+     * Count a patient's readings
+     * @param patientId the patient ID
+     * @return the number of readings
+     */
+    @Query("SELECT COUNT(r) FROM BloodPressureReading r WHERE r.patient.id = :patientId")
+    long countByPatientId(Long patientId);
+
+    /**
+     * Find the first page of a patient's readings, newest first
+     * @param patientId the patient ID
+     * @param limit the maximum number of readings
+     * @return a list of readings ordered by reading time and ID descending
+     */
+    @Query("SELECT r FROM BloodPressureReading r WHERE r.patient.id = :patientId ORDER BY r.readingTime DESC, r.id DESC")
+    List<BloodPressureReading> findByPatientIdOrderByReadingTimeDescIdDesc(Long patientId, Limit limit);
+
+    /**
+     * Find a reading with its patient and recording user fetched in the same query, for the reading details pages
+     * @param id the reading ID
+     * @return an Optional containing the reading if found, or empty if not found
+     */
+    @EntityGraph(attributePaths = {"patient", "recordedBy"})
+    Optional<BloodPressureReading> findWithAssociationsById(Long id);
+
+    /**
+     * Find the first page of a patient's reading list, newest first
+     * @param patientId the patient ID
+     * @param limit the maximum number of readings
+     * @return a list of reading list items ordered by reading time and ID descending
+     */
+    @Query("SELECT new org.chikere.bptracker.app.dto.ReadingListItem(r.id, r.readingTime, r.systolicPressure, r.diastolicPressure, r.heartRate, r.alertLevel, r.notes) " +
+            "FROM BloodPressureReading r WHERE r.patient.id = :patientId " +
+            "ORDER BY r.readingTime DESC, r.id DESC")
+    List<ReadingListItem> findListItemsByPatientId(Long patientId, Limit limit);
+
+    /**
+     * Find the page of a patient's reading list following a position in newest-first order, for keyset pagination
+     * @param patientId the patient ID
+     * @param readingTime the reading time of the last reading on the previous page
+     * @param id the ID of the last reading on the previous page
+     * @param limit the maximum number of readings
+     * @return a list of reading list items ordered by reading time and ID descending
+     */
+    @Query("SELECT new org.chikere.bptracker.app.dto.ReadingListItem(r.id, r.readingTime, r.systolicPressure, r.diastolicPressure, r.heartRate, r.alertLevel, r.notes) " +
+            "FROM BloodPressureReading r WHERE r.patient.id = :patientId " +
+            "AND (r.readingTime < :readingTime OR (r.readingTime = :readingTime AND r.id < :id)) " +
+            "ORDER BY r.readingTime DESC, r.id DESC")
+    List<ReadingListItem> findListItemsForPatientBefore(Long patientId, LocalDateTime readingTime, Long id, Limit limit);
+
     /**
      * Find all readings for a patient, ordered by reading time descending
-     * @param patient the patient
+     * @param patientId the patient ID
      * @return a list of blood pressure readings for the patient, ordered by reading time descending
      */
-    List<BloodPressureReading> findByPatientOrderByReadingTimeDesc(Patient patient);
+    @Query("SELECT r FROM BloodPressureReading r WHERE r.patient.id = :patientId ORDER BY r.readingTime DESC")
+    List<BloodPressureReading> findByPatientIdOrderByReadingTimeDesc(Long patientId);
     
     /**
      * Find all readings for a patient between two dates
-     * @param patient the patient
+     * @param patientId the patient ID
      * @param startDate the start date
      * @param endDate the end date
      * @return a list of blood pressure readings for the patient between the two dates
      */
-    List<BloodPressureReading> findByPatientAndReadingTimeBetween(Patient patient, LocalDateTime startDate, LocalDateTime endDate);
+    @Query("SELECT r FROM BloodPressureReading r WHERE r.patient.id = :patientId " +
+            "AND r.readingTime BETWEEN :startDate AND :endDate")
+    List<BloodPressureReading> findByPatientIdAndReadingTimeBetween(Long patientId, LocalDateTime startDate, LocalDateTime endDate);
     
     /**
      * Find all critical readings for a patient
-     * @param patient the patient
+     * @param patientId the patient ID
      * @param alertLevel the alert level
      * @return a list of critical blood pressure readings for the patient
      */
-    List<BloodPressureReading> findByPatientAndAlertLevel(Patient patient, BloodPressureReading.AlertLevel alertLevel);
-    
+    @Query("SELECT r FROM BloodPressureReading r WHERE r.patient.id = :patientId AND r.alertLevel = :alertLevel")
+    List<BloodPressureReading> findByPatientIdAndAlertLevel(Long patientId, BloodPressureReading.AlertLevel alertLevel);
+
     /**
-     * Find the latest reading for a patient
-     * @param patient the patient
-     * @return the latest blood pressure reading for the patient
+     * Find the most recent critical readings across all patients, with the patient names joined in the same query
+     * @param limit the maximum number of readings
+     * @return a list of critical readings, most recent first
      */
-    @Query("SELECT r FROM BloodPressureReading r WHERE r.patient = :patient ORDER BY r.readingTime DESC")
-    List<BloodPressureReading> findLatestByPatient(Patient patient, Pageable pageable);
-    
+    @Query("SELECT new org.chikere.bptracker.app.dto.CriticalReading(r.id, p.id, p.firstName, p.lastName, r.systolicPressure, r.diastolicPressure, r.readingTime) " +
+            "FROM BloodPressureReading r JOIN r.patient p " +
+            "WHERE r.alertLevel = org.chikere.bptracker.app.model.BloodPressureReading.AlertLevel.CRITICAL " +
+            "ORDER BY r.readingTime DESC, r.id DESC")
+    List<CriticalReading> findRecentCritical(Limit limit);
+
     /**
-     * Count the number of readings for a patient
-     * @param patient the patient
-     * @return the number of readings for the patient
+     * Count readings grouped by alert level across all patients
+     * @return the number of readings for each alert level
      */
-    long countByPatient(Patient patient);
-}
\ No newline at end of file
+    @Query("SELECT r.alertLevel AS alertLevel, COUNT(r) AS total FROM BloodPressureReading r GROUP BY r.alertLevel")
+    List<AlertLevelCount> countByAlertLevel();
+
+    /**
+     * Count a patient's readings grouped by alert level
+     * @param patientId the patient ID
+     * @return the number of the patient's readings for each alert level
+     */
+    @Query("SELECT r.alertLevel AS alertLevel, COUNT(r) AS total FROM BloodPressureReading r WHERE r.patient.id = :patientId GROUP BY r.alertLevel")
+    List<AlertLevelCount> countByAlertLevelForPatient(Long patientId);
+
+    /**
+     * Aggregate a patient's readings in a time range
+     * @param patientId the patient ID
+     * @param start the start of the range (inclusive)
+     * @param end the end of the range (exclusive)
+     * @return the count, min, max and sum of the readings' values in the range
+     */
+    @Query("SELECT COUNT(r) AS readingCount, " +
+            "MIN(r.systolicPressure) AS systolicMin, MAX(r.systolicPressure) AS systolicMax, SUM(r.systolicPressure) AS systolicSum, " +
+            "MIN(r.diastolicPressure) AS diastolicMin, MAX(r.diastolicPressure) AS diastolicMax, SUM(r.diastolicPressure) AS diastolicSum, " +
+            "COUNT(r.heartRate) AS heartRateCount, MIN(r.heartRate) AS heartRateMin, MAX(r.heartRate) AS heartRateMax, SUM(r.heartRate) AS heartRateSum " +
+            "FROM BloodPressureReading r WHERE r.patient.id = :patientId AND r.readingTime >= :start AND r.readingTime < :end")
+    ReadingAggregate aggregateForPatient(Long patientId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Find the time series values of all of a patient's readings, without loading the entities
+     * @param patientId the patient ID
+     * @return a list of reading points ordered by reading time
+     */
+    @Query("SELECT new org.chikere.bptracker.app.dto.ReadingPoint(r.readingTime, r.systolicPressure, r.diastolicPressure, r.heartRate) " +
+            "FROM BloodPressureReading r WHERE r.patient.id = :patientId ORDER BY r.readingTime")
+    List<ReadingPoint> findPointsByPatientId(Long patientId);
+
+    /**
+     * Stream the time series values of a patient's readings between two dates, without loading the entities.
+     * Must be consumed inside a transaction and closed after use.
+     * @param patientId the patient ID
+     * @param startDate the start date
+     * @param endDate the end date
+     * @return a stream of reading points ordered by reading time
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new org.chikere.bptracker.app.dto.ReadingPoint(r.readingTime, r.systolicPressure, r.diastolicPressure, r.heartRate) " +
+            "FROM BloodPressureReading r WHERE r.patient.id = :patientId AND r.readingTime BETWEEN :startDate AND :endDate ORDER BY r.readingTime")
+    Stream<ReadingPoint> streamPointsByPatientIdBetween(Long patientId, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Find the time series values of several patients' readings between two dates in one query
+     * @param patientIds the patient IDs
+     * @param startDate the start date
+     * @param endDate the end date
+     * @return a list of reading points ordered by patient and reading ID
+     */
+    @Query("SELECT new org.chikere.bptracker.app.dto.PatientReadingPoint(r.patient.id, r.id, r.readingTime, r.systolicPressure, r.diastolicPressure, r.heartRate) " +
+            "FROM BloodPressureReading r WHERE r.patient.id IN :patientIds AND r.readingTime BETWEEN :startDate AND :endDate " +
+            "ORDER BY r.patient.id, r.id")
+    List<PatientReadingPoint> findPointsByPatientIdsBetween(Collection<Long> patientIds, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Find the next chunk of recent reading points for all patients in ID order, for keyset pagination over new readings.
+     * The reading time bound lets partitioned storage skip partitions older than the given time.
+     * @param afterId the last reading ID already processed
+     * @param since the earliest reading time to include
+     * @param limit the maximum chunk size
+     * @return a list of reading points with IDs greater than the given ID, ordered by ID
+     */
+    @Query("SELECT new org.chikere.bptracker.app.dto.PatientReadingPoint(r.patient.id, r.id, r.readingTime, r.systolicPressure, r.diastolicPressure, r.heartRate) " +
+            "FROM BloodPressureReading r WHERE r.id > :afterId AND r.readingTime >= :since ORDER BY r.id")
+    List<PatientReadingPoint> findPointsAfterIdSince(Long afterId, LocalDateTime since, Limit limit);
+
+    /**
+     * Find the lowest ID among readings taken since a point in time
+     * @param since the start of the range
+     * @return the lowest reading ID, or null if there are no such readings
+     */
+    @Query("SELECT MIN(r.id) FROM BloodPressureReading r WHERE r.readingTime >= :since")
+    Long findMinIdSince(LocalDateTime since);
+
+    /**
+     * Count a patient's readings between two dates
+     * @param patientId the patient ID
+     * @param startDate the start date
+     * @param endDate the end date
+     * @return the number of readings between the two dates
+     */
+    @Query("SELECT COUNT(r) FROM BloodPressureReading r WHERE r.patient.id = :patientId " +
+            "AND r.readingTime BETWEEN :startDate AND :endDate")
+    long countByPatientIdAndReadingTimeBetween(Long patientId, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Projection of a reading count for one alert level
+     */
+    interface AlertLevelCount {
+        BloodPressureReading.AlertLevel getAlertLevel();
+
+        long getTotal();
+    }
+
+    /**
+     * Projection of aggregated reading values over a time range
+     */
+    interface ReadingAggregate {
+        long getReadingCount();
+
+        Integer getSystolicMin();
+
+        Integer getSystolicMax();
+
+        Long getSystolicSum();
+
+        Integer getDiastolicMin();
+
+        Integer getDiastolicMax();
+
+        Long getDiastolicSum();
+
+        long getHeartRateCount();
+
+        Integer getHeartRateMin();
+
+        Integer getHeartRateMax();
+
+        Long getHeartRateSum();
+    }
+}
@@ -0,0 +1,128 @@
+package org.chikere.bptracker.app.repository;
+
+import org.chikere.bptracker.app.model.BloodPressureRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for BloodPressureRollup entity
+ */
+@Repository
+public interface BloodPressureRollupRepository extends JpaRepository<BloodPressureRollup, Long> {
+
+    /**
+     * Find the rollup for a single bucket
+     * @param patientId the patient ID
+     * @param resolution the bucket resolution
+     * @param bucketStart the start of the bucket
+     * @return an Optional containing the rollup if the bucket has readings, or empty otherwise
+     */
+    Optional<BloodPressureRollup> findByPatientIdAndResolutionAndBucketStart(
+            Long patientId, BloodPressureRollup.Resolution resolution, LocalDateTime bucketStart);
+
+    /**
+     * Find a patient's rollups with buckets starting in a time range, ordered by bucket start
+     * @param patientId the patient ID
+     * @param resolution the bucket resolution
+     * @param start the earliest bucket start
+     * @param end the latest bucket start
+     * @return a list of rollups ordered by bucket start
+     */
+    List<BloodPressureRollup> findByPatientIdAndResolutionAndBucketStartBetweenOrderByBucketStart(
+            Long patientId, BloodPressureRollup.Resolution resolution, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Find all of a patient's rollups at a resolution, ordered by bucket start
+     * @param patientId the patient ID
+     * @param resolution the bucket resolution
+     * @return a list of rollups ordered by bucket start
+     */
+    List<BloodPressureRollup> findByPatientIdAndResolutionOrderByBucketStart(
+            Long patientId, BloodPressureRollup.Resolution resolution);
+
+    /**
+     * Fold a partial rollup into its stored bucket in a single statement, creating the bucket if it does not exist.
+     * Concurrent upserts of the same bucket are serialized by PostgreSQL on the bucket's unique key.
+     * @param rollup the partial rollup holding the bucket key and the aggregates of the readings to add
+     */
+    @Modifying
+    @Query(value = "INSERT INTO bp_rollups (patient_id, resolution, bucket_start, reading_count, " +
+            "systolic_min, systolic_max, systolic_sum, diastolic_min, diastolic_max, diastolic_sum, " +
+            "heart_rate_count, heart_rate_min, heart_rate_max, heart_rate_sum) " +
+            "VALUES (:#{#rollup.patientId}, :#{#rollup.resolution.name()}, :#{#rollup.bucketStart}, " +
+            ":#{#rollup.readingCount}, :#{#rollup.systolicMin}, :#{#rollup.systolicMax}, :#{#rollup.systolicSum}, " +
+            ":#{#rollup.diastolicMin}, :#{#rollup.diastolicMax}, :#{#rollup.diastolicSum}, " +
+            ":#{#rollup.heartRateCount}, :#{#rollup.heartRateMin}, :#{#rollup.heartRateMax}, :#{#rollup.heartRateSum}) " +
+            "ON CONFLICT (patient_id, resolution, bucket_start) DO UPDATE SET " +
+            "reading_count = bp_rollups.reading_count + EXCLUDED.reading_count, " +
+            "systolic_min = LEAST(bp_rollups.systolic_min, EXCLUDED.systolic_min), " +
+            "systolic_max = GREATEST(bp_rollups.systolic_max, EXCLUDED.systolic_max), " +
+            "systolic_sum = bp_rollups.systolic_sum + EXCLUDED.systolic_sum, " +
+            "diastolic_min = LEAST(bp_rollups.diastolic_min, EXCLUDED.diastolic_min), " +
+            "diastolic_max = GREATEST(bp_rollups.diastolic_max, EXCLUDED.diastolic_max), " +
+            "diastolic_sum = bp_rollups.diastolic_sum + EXCLUDED.diastolic_sum, " +
+            "heart_rate_count = bp_rollups.heart_rate_count + EXCLUDED.heart_rate_count, " +
+            "heart_rate_min = LEAST(bp_rollups.heart_rate_min, EXCLUDED.heart_rate_min), " +
+            "heart_rate_max = GREATEST(bp_rollups.heart_rate_max, EXCLUDED.heart_rate_max), " +
+            "heart_rate_sum = bp_rollups.heart_rate_sum + EXCLUDED.heart_rate_sum",
+            nativeQuery = true)
+    void upsertPostgres(@Param("rollup") BloodPressureRollup rollup);
+
+    /**
+     * Fold a partial rollup into its stored bucket in a single statement, creating the bucket if it does not exist.
+     * H2 variant of {@link #upsertPostgres}, since H2 has no ON CONFLICT clause. Missing heart rates are
+     * coalesced so the result does not depend on how LEAST and GREATEST treat nulls.
+     * @param rollup the partial rollup holding the bucket key and the aggregates of the readings to add
+     */
+    @Modifying
+    @Query(value = "MERGE INTO bp_rollups t USING (SELECT CAST(:#{#rollup.patientId} AS BIGINT) AS patient_id, " +
+            "CAST(:#{#rollup.resolution.name()} AS VARCHAR(10)) AS resolution, " +
+            "CAST(:#{#rollup.bucketStart} AS TIMESTAMP) AS bucket_start, " +
+            "CAST(:#{#rollup.readingCount} AS BIGINT) AS reading_count, " +
+            "CAST(:#{#rollup.systolicMin} AS INTEGER) AS systolic_min, " +
+            "CAST(:#{#rollup.systolicMax} AS INTEGER) AS systolic_max, " +
+            "CAST(:#{#rollup.systolicSum} AS BIGINT) AS systolic_sum, " +
+            "CAST(:#{#rollup.diastolicMin} AS INTEGER) AS diastolic_min, " +
+            "CAST(:#{#rollup.diastolicMax} AS INTEGER) AS diastolic_max, " +
+            "CAST(:#{#rollup.diastolicSum} AS BIGINT) AS diastolic_sum, " +
+            "CAST(:#{#rollup.heartRateCount} AS BIGINT) AS heart_rate_count, " +
+            "CAST(:#{#rollup.heartRateMin} AS INTEGER) AS heart_rate_min, " +
+            "CAST(:#{#rollup.heartRateMax} AS INTEGER) AS heart_rate_max, " +
+            "CAST(:#{#rollup.heartRateSum} AS BIGINT) AS heart_rate_sum) s " +
+            "ON t.patient_id = s.patient_id AND t.resolution = s.resolution AND t.bucket_start = s.bucket_start " +
+            "WHEN MATCHED THEN UPDATE SET " +
+            "reading_count = t.reading_count + s.reading_count, " +
+            "systolic_min = LEAST(t.systolic_min, s.systolic_min), " +
+            "systolic_max = GREATEST(t.systolic_max, s.systolic_max), " +
+            "systolic_sum = t.systolic_sum + s.systolic_sum, " +
+            "diastolic_min = LEAST(t.diastolic_min, s.diastolic_min), " +
+            "diastolic_max = GREATEST(t.diastolic_max, s.diastolic_max), " +
+            "diastolic_sum = t.diastolic_sum + s.diastolic_sum, " +
+            "heart_rate_count = t.heart_rate_count + s.heart_rate_count, " +
+            "heart_rate_min = LEAST(COALESCE(t.heart_rate_min, s.heart_rate_min), COALESCE(s.heart_rate_min, t.heart_rate_min)), " +
+            "heart_rate_max = GREATEST(COALESCE(t.heart_rate_max, s.heart_rate_max), COALESCE(s.heart_rate_max, t.heart_rate_max)), " +
+            "heart_rate_sum = t.heart_rate_sum + s.heart_rate_sum " +
+            "WHEN NOT MATCHED THEN INSERT (patient_id, resolution, bucket_start, reading_count, " +
+            "systolic_min, systolic_max, systolic_sum, diastolic_min, diastolic_max, diastolic_sum, " +
+            "heart_rate_count, heart_rate_min, heart_rate_max, heart_rate_sum) " +
+            "VALUES (s.patient_id, s.resolution, s.bucket_start, s.reading_count, " +
+            "s.systolic_min, s.systolic_max, s.systolic_sum, s.diastolic_min, s.diastolic_max, s.diastolic_sum, " +
+            "s.heart_rate_count, s.heart_rate_min, s.heart_rate_max, s.heart_rate_sum)",
+            nativeQuery = true)
+    void mergeH2(@Param("rollup") BloodPressureRollup rollup);
+
+    /**
+     * Delete all rollups for a patient
+     * @param patientId the patient ID
+     */
+    @Modifying
+    @Query("DELETE FROM BloodPressureRollup r WHERE r.patientId = :patientId")
+    void deleteByPatientId(Long patientId);
+}
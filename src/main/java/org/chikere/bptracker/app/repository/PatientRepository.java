@@ -1,10 +1,17 @@
 package org.chikere.bptracker.app.repository;
 
+import jakarta.persistence.QueryHint;
+import org.chikere.bptracker.app.dto.PatientListItem;
+import org.chikere.bptracker.app.dto.PatientSuggestion;
 import org.chikere.bptracker.app.model.Patient;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -42,10 +49,64 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     List<Patient> findByEmailContainingIgnoreCase(String email);
     
     /**
-     * Search for patients by name (first name or last name)
-     * @param searchTerm the search term
-     * @return a list of patients matching the search term
+     * Find the next chunk of patients in ID order, for keyset pagination over all patients
+     * @param id the last ID of the previous chunk, or 0 for the first chunk
+     * @param limit the maximum chunk size
+     * @return a list of patients with IDs greater than the given ID, ordered by ID
      */
-    @Query("SELECT p FROM Patient p WHERE LOWER(p.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR LOWER(p.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Patient> searchByName(String searchTerm);
-}
\ No newline at end of file
+    List<Patient> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Find the next chunk of patient names and contact details in ID order, without loading the entities
+     * @param id the last ID of the previous chunk, or 0 for the first chunk
+     * @param limit the maximum chunk size
+     * @return a list of patient suggestions with IDs greater than the given ID, ordered by ID
+     */
+    @Query("SELECT new org.chikere.bptracker.app.dto.PatientSuggestion(p.id, p.firstName, p.lastName, p.phoneNumber, p.email) " +
+            "FROM Patient p WHERE p.id > :id ORDER BY p.id")
+    List<PatientSuggestion> findSuggestionsAfterId(Long id, Limit limit);
+
+    /**
+     * Find the first page of the patient list in name order. The patient list opens on this page, so it is kept in the query cache.
+     * @param limit the maximum number of patients
+     * @return a list of patient list items ordered by last name, first name and ID
+     */
+    @Query("SELECT new org.chikere.bptracker.app.dto.PatientListItem(p.id, p.firstName, p.lastName, p.gender, p.dateOfBirth, p.phoneNumber, p.email, p.registrationDate) " +
+            "FROM Patient p ORDER BY p.lastName, p.firstName, p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<PatientListItem> findListItemsOrderByName(Limit limit);
+
+    /**
+     * Find the page of the patient list following a position in name order, for keyset pagination.
+     * Pages are kept in the query cache until the patients table changes.
+     * @param lastName the last name of the last patient on the previous page
+     * @param firstName the first name of the last patient on the previous page
+     * @param id the ID of the last patient on the previous page
+     * @param limit the maximum number of patients
+     * @return a list of patient list items ordered by last name, first name and ID
+     */
+    @Query("SELECT new org.chikere.bptracker.app.dto.PatientListItem(p.id, p.firstName, p.lastName, p.gender, p.dateOfBirth, p.phoneNumber, p.email, p.registrationDate) " +
+            "FROM Patient p WHERE p.lastName > :lastName " +
+            "OR (p.lastName = :lastName AND (p.firstName > :firstName OR (p.firstName = :firstName AND p.id > :id))) " +
+            "ORDER BY p.lastName, p.firstName, p.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<PatientListItem> findListItemsAfter(String lastName, String firstName, Long id, Limit limit);
+
+    /**
+     * Find the most recently registered patients for the dashboard
+     * @param limit the maximum number of patients
+     * @return a list of patient list items, most recently registered first
+     */
+    @Query("SELECT new org.chikere.bptracker.app.dto.PatientListItem(p.id, p.firstName, p.lastName, p.gender, p.dateOfBirth, p.phoneNumber, p.email, p.registrationDate) " +
+            "FROM Patient p ORDER BY p.registrationDate DESC, p.id DESC")
+    List<PatientListItem> findRecentListItems(Limit limit);
+
+    /**
+     * Find patient list items by ID, in no particular order
+     * @param ids the patient IDs
+     * @return a list of patient list items for the patients found
+     */
+    @Query("SELECT new org.chikere.bptracker.app.dto.PatientListItem(p.id, p.firstName, p.lastName, p.gender, p.dateOfBirth, p.phoneNumber, p.email, p.registrationDate) " +
+            "FROM Patient p WHERE p.id IN :ids")
+    List<PatientListItem> findListItemsByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,32 @@
+package org.chikere.bptracker.app.repository;
+
+import org.chikere.bptracker.app.model.PatientTrendState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for PatientTrendState entity
+ */
+@Repository
+public interface PatientTrendStateRepository extends JpaRepository<PatientTrendState, Long> {
+
+    /**
+     * Mark a patient's stored window as stale after one of their readings was edited or deleted, so it is read back
+     * from the readings before the next analysis. The baseline is kept. The version is bumped so that a sweep
+     * analyzing the patient at the same time cannot save over the mark.
+     * @param patientId the patient ID
+     */
+    @Modifying
+    @Query("UPDATE PatientTrendState s SET s.windowStale = true, s.version = s.version + 1 WHERE s.patientId = :patientId")
+    void markWindowStale(Long patientId);
+
+    /**
+     * Discard a patient's trend state when the patient is deleted
+     * @param patientId the patient ID
+     */
+    @Modifying
+    @Query("DELETE FROM PatientTrendState s WHERE s.patientId = :patientId")
+    void deleteByPatientId(Long patientId);
+}
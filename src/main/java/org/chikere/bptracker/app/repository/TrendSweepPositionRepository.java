@@ -0,0 +1,12 @@
+package org.chikere.bptracker.app.repository;
+
+import org.chikere.bptracker.app.model.TrendSweepPosition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for TrendSweepPosition entity
+ */
+@Repository
+public interface TrendSweepPositionRepository extends JpaRepository<TrendSweepPosition, Integer> {
+}
@@ -1,7 +1,10 @@
 package org.chikere.bptracker.app.repository;
 
+import jakarta.persistence.QueryHint;
 import org.chikere.bptracker.app.model.User;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -13,10 +16,11 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     
     /**
-     * Find a user by username
+     * Find a user by username. Runs on every authentication, so the result is kept in the query cache.
      * @param username the username to search for
      * @return an Optional containing the user if found, or empty if not found
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByUsername(String username);
     
     /**
@@ -1,112 +1,327 @@
 package org.chikere.bptracker.app.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.chikere.bptracker.app.dto.PatientReadingPoint;
 import org.chikere.bptracker.app.model.Patient;
+import org.chikere.bptracker.app.model.PatientTrendState;
+import org.chikere.bptracker.app.model.TrendSweepPosition;
+import org.chikere.bptracker.app.repository.BloodPressureReadingRepository;
+import org.chikere.bptracker.app.repository.PatientRepository;
+import org.chikere.bptracker.app.repository.PatientTrendStateRepository;
+import org.chikere.bptracker.app.repository.TrendSweepPositionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
- * Service for AI monitoring of blood pressure readings (mocked implementation)
+ * Service for AI monitoring of blood pressure readings.
+ * Each patient has a running trend state holding their readings over the analysis window and a long-term baseline.
+ * Analysis runs fold in only the readings added since the previous run and only analyze patients with new readings,
+ * so the work per run scales with new data rather than with total history; a patient's readings are only read back
+ * from the readings table to bootstrap their state, or after one of them was edited or deleted.
+ * Trend detection is delegated to a pluggable {@link TrendModel}.
+ * Sweep duration, patients analyzed and per-patient analysis time are exported as metrics.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AIMonitoringService {
 
-    private final PatientService patientService;
-    private final BloodPressureService bloodPressureService;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final PatientRepository patientRepository;
+    private final BloodPressureReadingRepository bpRepository;
+    private final PatientTrendStateRepository trendStateRepository;
+    private final TrendSweepPositionRepository sweepPositionRepository;
     private final AlertService alertService;
-    private final Random random = new Random();
+    private final List<TrendModel> trendModels;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean sweepRunning = new AtomicBoolean();
+
+    private TrendModel trendModel;
+
+    @Value("${app.ai.monitoring.model:statistical}")
+    private String modelName;
+
+    @Value("${app.ai.monitoring.window-days:30}")
+    private int windowDays;
+
+    @Value("${app.ai.monitoring.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.ai.monitoring.parallelism:8}")
+    private int parallelism;
+
+    @Value("${app.ai.monitoring.baseline-alpha:0.02}")
+    private double baselineAlpha;
+
+    @Value("${app.ai.trend.recent-days:7}")
+    private double recentDays;
+
+    @PostConstruct
+    void selectModel() {
+        trendModel = trendModels.stream()
+                .filter(candidate -> candidate.getName().equalsIgnoreCase(modelName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Trend model not found with name: " + modelName));
+    }
 
     /**
-     * Scheduled task to analyze blood pressure readings for all patients
-     * This is scheduled using the cron expression defined in application.properties
+     * Scheduled task to analyze new blood pressure readings for all patients
+     * This is scheduled using the cron expression defined in application.properties.
+     * Readings in the analysis window after the sweep position are read in ID-ordered chunks; only patients
+     * with readings not yet in their stored window are analyzed, on virtual threads with bounded parallelism.
+     * The next sweep resumes from the end of this sweep's predecessor, or from before the first reading of a patient
+     * whose analysis failed, so readings committed out of ID order and failed analyses are picked up again.
+     * A run is skipped if the previous one is still in progress.
      */
     @Scheduled(cron = "${app.ai.monitoring.schedule:0 0 */6 * * *}")
     public void analyzeAllPatients() {
-        log.info("Starting scheduled AI analysis of blood pressure readings for all patients");
-        
-        List<Patient> patients = patientService.getAllPatients();
-        log.info("Found {} patients to analyze", patients.size());
-        
-        for (Patient patient : patients) {
-            try {
-                analyzePatient(patient);
-            } catch (Exception e) {
-                log.error("Error analyzing patient {}: {}", patient.getId(), e.getMessage(), e);
+        if (!sweepRunning.compareAndSet(false, true)) {
+            log.warn("Skipping scheduled AI analysis because the previous run is still in progress");
+            return;
+        }
+
+        Timer.Sample sweep = Timer.start(meterRegistry);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime windowStart = now.minusDays(windowDays);
+            TrendSweepPosition position = sweepPositionRepository.findById(TrendSweepPosition.SWEEP_ID).orElse(null);
+            if (position == null) {
+                // First run: start from the oldest reading in the analysis window
+                Long firstId = bpRepository.findMinIdSince(windowStart);
+                if (firstId == null) {
+                    log.info("No readings to analyze");
+                    return;
+                }
+                position = new TrendSweepPosition(TrendSweepPosition.SWEEP_ID, firstId - 1, firstId - 1, null);
+            }
+
+            log.info("Starting scheduled AI analysis of readings after ID {}", position.getScanFromId());
+            Semaphore permits = new Semaphore(parallelism);
+            long cursor = position.getScanFromId();
+            int analyzed = 0;
+            long firstFailedId = Long.MAX_VALUE;
+            List<PatientReadingPoint> chunk;
+            while (!(chunk = bpRepository.findPointsAfterIdSince(cursor, windowStart, Limit.of(chunkSize))).isEmpty()) {
+                ChunkResult result = analyzeChunk(chunk, windowStart, permits);
+                analyzed += result.analyzed();
+                firstFailedId = Math.min(firstFailedId, result.firstFailedId());
+                cursor = chunk.get(chunk.size() - 1).readingId();
             }
+
+            position.setScanFromId(Math.min(position.getLastScannedId(), firstFailedId - 1));
+            position.setLastScannedId(Math.max(position.getLastScannedId(), cursor));
+            position.setUpdatedAt(now);
+            sweepPositionRepository.save(position);
+            meterRegistry.counter("bptracker.ai.patients.analyzed").increment(analyzed);
+            log.info("Completed scheduled AI analysis of {} patients with new readings", analyzed);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Scheduled AI analysis interrupted");
+        } finally {
+            sweep.stop(meterRegistry.timer("bptracker.ai.sweep"));
+            sweepRunning.set(false);
         }
-        
-        log.info("Completed scheduled AI analysis");
     }
 
     /**
-     * Analyze blood pressure readings for a specific patient
+     * Analyze a patient's readings over the analysis window on demand.
+     * The stored window is read back from the readings, as for a stale state, and the baseline is kept;
+     * a patient without a state is bootstrapped.
      * @param patient the patient to analyze
      */
     public void analyzePatient(Patient patient) {
-        log.info("Analyzing blood pressure readings for patient: {} {}", patient.getFirstName(), patient.getLastName());
-        
-        // Get readings from the last 30 days
+        Timer.Sample sample = Timer.start(meterRegistry);
         LocalDateTime endDate = LocalDateTime.now();
-        LocalDateTime startDate = endDate.minusDays(30);
-        
-        List<BloodPressureReading> readings = bloodPressureService.getReadingsForPatientBetweenDates(
-                patient.getId(), startDate, endDate);
-        
-        if (readings.isEmpty()) {
-            log.info("No readings found for patient {} in the last 30 days", patient.getId());
-            return;
+        LocalDateTime windowStart = endDate.minusDays(windowDays);
+        List<PatientReadingPoint> readings = bpRepository.findPointsByPatientIdsBetween(
+                List.of(patient.getId()), windowStart, endDate);
+        PatientTrendState state = trendStateRepository.findById(patient.getId())
+                .orElseGet(() -> new PatientTrendState(patient.getId()));
+        TrendWindow window = update(state, readings, List.of(), windowStart);
+        analyzeTrend(patient, state, window);
+        trendStateRepository.save(state);
+        sample.stop(analysisTimer());
+    }
+
+    /**
+     * Fold a chunk of new readings into the trend states of their patients and analyze each patient with readings
+     * not yet in their window once. Only patients without a state, or whose window was marked stale, have their
+     * window read from the readings, for the whole chunk in one query.
+     * Each state is saved after its patient is analyzed; if the analysis or the save fails, the patient's first new
+     * reading is reported so the sweep position is held back before it.
+     */
+    private ChunkResult analyzeChunk(List<PatientReadingPoint> chunk, LocalDateTime windowStart, Semaphore permits)
+            throws InterruptedException {
+        Map<Long, List<PatientReadingPoint>> newReadings = chunk.stream()
+                .collect(Collectors.groupingBy(PatientReadingPoint::patientId, LinkedHashMap::new, Collectors.toList()));
+        Map<Long, PatientTrendState> states = trendStateRepository.findAllById(newReadings.keySet()).stream()
+                .collect(Collectors.toMap(PatientTrendState::getPatientId, Function.identity()));
+        Map<Long, Patient> patients = patientRepository.findAllById(newReadings.keySet()).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+        Set<Long> reload = newReadings.keySet().stream()
+                .filter(patientId -> !states.containsKey(patientId) || states.get(patientId).isWindowStale())
+                .collect(Collectors.toSet());
+        Map<Long, List<PatientReadingPoint>> windows = reload.isEmpty() ? Map.of() : bpRepository
+                .findPointsByPatientIdsBetween(reload, windowStart, LocalDateTime.now()).stream()
+                .collect(Collectors.groupingBy(PatientReadingPoint::patientId));
+
+        AtomicInteger analyzed = new AtomicInteger();
+        AtomicLong firstFailedId = new AtomicLong(Long.MAX_VALUE);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<Long, List<PatientReadingPoint>> entry : newReadings.entrySet()) {
+                Patient patient = patients.get(entry.getKey());
+                if (patient == null) {
+                    // Deleted since the readings were read
+                    continue;
+                }
+                PatientTrendState state = states.computeIfAbsent(patient.getId(), PatientTrendState::new);
+                List<PatientReadingPoint> reloaded = reload.contains(patient.getId())
+                        ? windows.getOrDefault(patient.getId(), List.of())
+                        : null;
+
+                permits.acquire();
+                executor.execute(() -> {
+                    Timer.Sample sample = Timer.start(meterRegistry);
+                    try {
+                        TrendWindow window = update(state, reloaded, entry.getValue(), windowStart);
+                        if (window != null) {
+                            analyzeTrend(patient, state, window);
+                            trendStateRepository.save(state);
+                            analyzed.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        firstFailedId.accumulateAndGet(entry.getValue().get(0).readingId(), Math::min);
+                        log.error("Error analyzing patient {}: {}", patient.getId(), e.getMessage(), e);
+                    } finally {
+                        sample.stop(analysisTimer());
+                        permits.release();
+                    }
+                });
+            }
+        }
+        return new ChunkResult(analyzed.get(), firstFailedId.get());
+    }
+
+    /**
+     * Bring a patient's state up to date with new readings. The window is unpacked from the state, or taken from the
+     * readings when the state is new or stale; new readings not in it yet are inserted, readings that left the recent
+     * segment are folded into the baseline, and readings that left the analysis window are dropped.
+     * Readings inserted behind the recent segment, e.g. ones committed late, join the baseline straight away.
+     * @return the updated window, or null if there were no readings to add
+     */
+    private TrendWindow update(PatientTrendState state, List<PatientReadingPoint> reloaded,
+                               List<PatientReadingPoint> newReadings, LocalDateTime windowStart) {
+        TrendWindow window;
+        if (reloaded != null) {
+            window = new TrendWindow(reloaded.size() + newReadings.size());
+            for (PatientReadingPoint point : reloaded) {
+                window.insert(point.readingId(), epochSecond(point.readingTime()), point.systolic(), point.diastolic());
+                state.setLastReadingId(Math.max(state.getLastReadingId(), point.readingId()));
+            }
+            state.setWindowStale(false);
+        } else {
+            window = TrendWindow.unpack(state.getWindowReadings());
+        }
+
+        long baselineThrough = state.getBaselineThrough() == null ? Long.MIN_VALUE : epochSecond(state.getBaselineThrough());
+        boolean added = false;
+        for (PatientReadingPoint point : newReadings) {
+            // Every reading in the window is at or below the last reading ID, so only those need to be looked up
+            if (point.readingId() <= state.getLastReadingId() && window.contains(point.readingId())) {
+                continue;
+            }
+            long time = epochSecond(point.readingTime());
+            window.insert(point.readingId(), time, point.systolic(), point.diastolic());
+            if (time <= baselineThrough) {
+                state.foldBaseline(point.systolic(), point.diastolic(), baselineAlpha);
+            }
+            state.setLastReadingId(Math.max(state.getLastReadingId(), point.readingId()));
+            added = true;
+        }
+        if (!added && reloaded == null || window.size() == 0) {
+            return null;
+        }
+
+        long recentStart = window.time(window.size() - 1) - (long) (recentDays * SECONDS_PER_DAY);
+        if (recentStart > baselineThrough) {
+            for (int i = 0; i < window.size() && window.time(i) <= recentStart; i++) {
+                if (window.time(i) > baselineThrough) {
+                    state.foldBaseline(window.systolic(i), window.diastolic(i), baselineAlpha);
+                }
+            }
+            baselineThrough = recentStart;
+            state.setBaselineThrough(LocalDateTime.ofEpochSecond(recentStart, 0, ZoneOffset.UTC));
+        }
+
+        long windowStartSecond = epochSecond(windowStart);
+        int expired = 0;
+        while (expired < window.size()
+                && (window.time(expired) < windowStartSecond || window.size() - expired > TrendWindow.MAX_READINGS)) {
+            if (window.time(expired) > baselineThrough) {
+                state.foldBaseline(window.systolic(expired), window.diastolic(expired), baselineAlpha);
+            }
+            expired++;
         }
-        
-        log.info("Found {} readings for patient {} in the last 30 days", readings.size(), patient.getId());
-        
-        // Mock AI analysis
-        String analysisResult = mockAIAnalysis(readings);
-        
+        window.removeFirst(expired);
+
+        state.setWindowReadings(window.pack());
+        state.setUpdatedAt(LocalDateTime.now());
+        return window;
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private Timer analysisTimer() {
+        return meterRegistry.timer("bptracker.ai.patient.analysis");
+    }
+
+    private void analyzeTrend(Patient patient, PatientTrendState state, TrendWindow window) {
+        log.debug("Analyzing blood pressure trend for patient {} over {} readings", patient.getId(), window.size());
+
+        TrendSeries series = window.toSeries();
+        series.setBaseline(state.getSystolicBaseline(), state.getDiastolicBaseline(),
+                state.getSystolicStdDev(), state.getDiastolicStdDev(), state.getBaselineReadings());
+
+        String analysisResult = trendModel.analyze(series);
+
         // If abnormal trend detected, trigger an alert
         if (analysisResult != null) {
             log.warn("Abnormal BP trend detected for patient {}: {}", patient.getId(), analysisResult);
             alertService.triggerAbnormalTrendAlert(patient, analysisResult);
         } else {
-            log.info("No abnormal BP trends detected for patient {}", patient.getId());
+            log.debug("No abnormal BP trends detected for patient {}", patient.getId());
         }
     }
 
     /**
-     * Mock AI analysis of blood pressure readings
-     * @param readings the readings to analyze
-     * @return a description of the abnormal trend if detected, or null if no abnormal trend detected
+     * Outcome of analyzing a chunk
+     * @param analyzed the number of patients analyzed
+     * @param firstFailedId the first new reading of a patient whose analysis failed, or Long.MAX_VALUE if none failed
      */
-    private String mockAIAnalysis(List<BloodPressureReading> readings) {
-        // In a real implementation, this would use a machine learning model to analyze the readings
-        // For now, we just randomly decide whether to trigger an alert
-        
-        // Only trigger an alert if there are at least 5 readings
-        if (readings.size() < 5) {
-            return null;
-        }
-        
-        // 20% chance of detecting an abnormal trend
-        if (random.nextInt(5) == 0) {
-            // Randomly select one of several possible abnormal trends
-            String[] abnormalTrends = {
-                "Consistently elevated systolic pressure over the last week",
-                "Significant increase in diastolic pressure compared to baseline",
-                "High variability in readings suggesting unstable blood pressure",
-                "Gradual upward trend in both systolic and diastolic pressure",
-                "Elevated readings predominantly in the morning, suggesting morning hypertension"
-            };
-            
-            return abnormalTrends[random.nextInt(abnormalTrends.length)];
-        }
-        
-        return null;
+    private record ChunkResult(int analyzed, long firstFailedId) {
     }
-}
\ No newline at end of file
+}
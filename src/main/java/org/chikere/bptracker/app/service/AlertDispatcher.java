@@ -0,0 +1,138 @@
+package org.chikere.bptracker.app.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.chikere.bptracker.app.event.AlertEvent;
+import org.chikere.bptracker.app.model.AlertDeadLetter;
+import org.chikere.bptracker.app.repository.AlertDeadLetterRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Service delivering alerts asynchronously once the transaction that raised them has committed.
+ * Failed deliveries are retried with exponential backoff; alerts that still cannot be delivered,
+ * including SMS messages that {@link SMSService} accepted but could not send, are written to the dead-letter table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlertDispatcher {
+
+    private final SMSService smsService;
+    private final AlertDeadLetterRepository deadLetterRepository;
+    private final ThreadPoolExecutor alertDispatchExecutor;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate deadLetterTransaction;
+
+    @Value("${app.alerts.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.alerts.dispatch.initial-backoff:PT1S}")
+    private Duration initialBackoff;
+
+    @Value("${app.alerts.dispatch.max-backoff:PT1M}")
+    private Duration maxBackoff;
+
+    @PostConstruct
+    void createDeadLetterTransaction() {
+        // A dead letter written from an after-commit callback would otherwise join the transaction that has
+        // already committed, and never be flushed
+        deadLetterTransaction = new TransactionTemplate(transactionManager);
+        deadLetterTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Queue an alert for delivery. Runs after commit, or immediately when raised outside a transaction,
+     * so alerts for rolled back changes are never sent.
+     * @param event the alert event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAlert(AlertEvent event) {
+        try {
+            alertDispatchExecutor.execute(() -> deliver(event));
+        } catch (RejectedExecutionException e) {
+            log.error("Alert dispatch queue is full, dead-lettering alert for patient {}", event.patientId());
+            deadLetter(event, 0, "Dispatch queue full");
+        }
+    }
+
+    /**
+     * Get the number of alerts waiting for delivery
+     * @return the dispatch queue depth
+     */
+    public int getQueueDepth() {
+        return alertDispatchExecutor.getQueue().size();
+    }
+
+    private void deliver(AlertEvent event) {
+        log.warn(event.logMessage());
+
+        if (!event.hasRecipient() || !smsService.isSmsEnabled()) {
+            return;
+        }
+
+        long backoffMillis = initialBackoff.toMillis();
+        String lastError = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            int attempts = attempt;
+            try {
+                if (smsService.sendSMS(event.phoneNumber(), event.smsMessage(), error -> onSendFailed(event, attempts, error))) {
+                    return;
+                }
+                lastError = "SMS queue rejected the message";
+            } catch (RuntimeException e) {
+                lastError = e.getMessage() != null ? e.getMessage() : e.getClass().getName();
+            }
+
+            if (attempt < maxAttempts) {
+                log.warn("Alert delivery attempt {} for patient {} failed: {}; retrying in {} ms",
+                        attempt, event.patientId(), lastError, backoffMillis);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    deadLetter(event, attempt, "Interrupted while waiting to retry");
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, maxBackoff.toMillis());
+            }
+        }
+
+        log.error("Alert delivery for patient {} failed after {} attempts: {}", event.patientId(), maxAttempts, lastError);
+        deadLetter(event, maxAttempts, lastError);
+    }
+
+    /**
+     * Dead-letter an alert whose SMS was queued but could not be sent.
+     * Called on the SMS sender thread, so the dead letter is written on a dispatch thread when one is available.
+     */
+    private void onSendFailed(AlertEvent event, int attempts, Throwable error) {
+        String lastError = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+        log.error("SMS alert for patient {} could not be sent: {}", event.patientId(), lastError);
+        try {
+            alertDispatchExecutor.execute(() -> deadLetter(event, attempts, lastError));
+        } catch (RejectedExecutionException e) {
+            deadLetter(event, attempts, lastError);
+        }
+    }
+
+    private void deadLetter(AlertEvent event, int attempts, String lastError) {
+        try {
+            deadLetterTransaction.executeWithoutResult(status ->
+                    deadLetterRepository.save(new AlertDeadLetter(event, attempts, lastError)));
+        } catch (RuntimeException e) {
+            log.error("Could not record undeliverable alert for patient {}: {}", event.patientId(), e.getMessage(), e);
+        }
+    }
+}
@@ -1,20 +1,26 @@
 package org.chikere.bptracker.app.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.chikere.bptracker.app.event.AlertEvent;
+import org.chikere.bptracker.app.event.ReadingAlertEvent;
 import org.chikere.bptracker.app.model.BloodPressureReading;
 import org.chikere.bptracker.app.model.Patient;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /**
- * Service for handling alerts related to blood pressure readings
+ * Service for handling alerts related to blood pressure readings.
+ * Alerts are published as events and delivered by {@link AlertDispatcher} after the current transaction commits;
+ * high and critical readings and trend alerts are also pushed to live dashboards by {@link LiveAlertHub}.
+ * Alerts are counted per type, and live reading alerts per alert level.
  */
 @Service
 @RequiredArgsConstructor
-@Slf4j
 public class AlertService {
 
-    private final SMSService smsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Trigger an alert for a high blood pressure reading
@@ -29,14 +35,27 @@ public class AlertService {
                 reading.getSystolicPressure(),
                 reading.getDiastolicPressure()
         );
-        
-        // Log the alert
-        log.warn(message);
-        
-        // Send SMS notification if patient has a phone number
-        if (patient.getPhoneNumber() != null && !patient.getPhoneNumber().isEmpty()) {
-            smsService.sendSMS(patient.getPhoneNumber(), message);
+
+        eventPublisher.publishEvent(new AlertEvent(AlertEvent.Type.HIGH_BP, patient.getId(), reading.getId(),
+                message, patient.getPhoneNumber(), message));
+        countAlert(AlertEvent.Type.HIGH_BP);
+    }
+
+    /**
+     * Notify live dashboards of a newly recorded reading at a high or critical alert level
+     * @param reading the recorded blood pressure reading
+     */
+    public void publishReadingAlert(BloodPressureReading reading) {
+        BloodPressureReading.AlertLevel alertLevel = reading.getAlertLevel();
+        if (alertLevel != BloodPressureReading.AlertLevel.HIGH && alertLevel != BloodPressureReading.AlertLevel.CRITICAL) {
+            return;
         }
+
+        Patient patient = reading.getPatient();
+        eventPublisher.publishEvent(new ReadingAlertEvent(reading.getId(), patient.getId(),
+                patient.getFirstName() + " " + patient.getLastName(), reading.getSystolicPressure(),
+                reading.getDiastolicPressure(), alertLevel, reading.getReadingTime()));
+        meterRegistry.counter("bptracker.alerts.live", "alert.level", alertLevel.name()).increment();
     }
 
     /**
@@ -51,18 +70,18 @@ public class AlertService {
                 patient.getLastName(),
                 analysisResult
         );
-        
-        // Log the alert
-        log.warn(message);
-        
-        // Send SMS notification if patient has a phone number
-        if (patient.getPhoneNumber() != null && !patient.getPhoneNumber().isEmpty()) {
-            String smsMessage = String.format(
-                    "Dear %s, our monitoring system has detected an abnormal trend in your blood pressure readings. " +
-                    "Please consult with your healthcare provider as soon as possible.",
-                    patient.getFirstName()
-            );
-            smsService.sendSMS(patient.getPhoneNumber(), smsMessage);
-        }
+        String smsMessage = String.format(
+                "Dear %s, our monitoring system has detected an abnormal trend in your blood pressure readings. " +
+                "Please consult with your healthcare provider as soon as possible.",
+                patient.getFirstName()
+        );
+
+        eventPublisher.publishEvent(new AlertEvent(AlertEvent.Type.ABNORMAL_TREND, patient.getId(), null,
+                message, patient.getPhoneNumber(), smsMessage));
+        countAlert(AlertEvent.Type.ABNORMAL_TREND);
+    }
+
+    private void countAlert(AlertEvent.Type type) {
+        meterRegistry.counter("bptracker.alerts.triggered", "type", type.name()).increment();
     }
-}
\ No newline at end of file
+}
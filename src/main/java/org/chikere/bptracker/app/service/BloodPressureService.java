@@ -1,22 +1,34 @@
 package org.chikere.bptracker.app.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import org.chikere.bptracker.app.dto.CriticalReading;
+import org.chikere.bptracker.app.dto.CursorPage;
+import org.chikere.bptracker.app.dto.ReadingListItem;
+import org.chikere.bptracker.app.dto.ReadingPoint;
+import org.chikere.bptracker.app.dto.ReadingSummary;
 import org.chikere.bptracker.app.model.BloodPressureReading;
 import org.chikere.bptracker.app.model.Patient;
 import org.chikere.bptracker.app.model.User;
 import org.chikere.bptracker.app.repository.BloodPressureReadingRepository;
-import org.chikere.bptracker.app.repository.PatientRepository;
+import org.chikere.bptracker.app.repository.PatientTrendStateRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Service for managing blood pressure readings
@@ -26,8 +38,12 @@ import java.util.Optional;
 public class BloodPressureService {
 
     private final BloodPressureReadingRepository bpRepository;
-    private final PatientRepository patientRepository;
+    private final PatientLookupCache patientLookupCache;
+    private final PatientTrendStateRepository trendStateRepository;
     private final AlertService alertService;
+    private final StatisticsService statisticsService;
+    private final RollupService rollupService;
+    private final MeterRegistry meterRegistry;
 
     @Value("${app.bp.critical.systolic:180}")
     private int criticalSystolicThreshold;
@@ -53,12 +69,12 @@ public class BloodPressureService {
     }
 
     /**
-     * Get a blood pressure reading by ID
+     * Get a blood pressure reading by ID, with its patient and the user who recorded it
      * @param id the reading ID
      * @return an Optional containing the reading if found, or empty if not found
      */
     public Optional<BloodPressureReading> getReadingById(Long id) {
-        return bpRepository.findById(id);
+        return bpRepository.findWithAssociationsById(id);
     }
 
     /**
@@ -67,9 +83,7 @@ public class BloodPressureService {
      * @return a list of blood pressure readings for the patient
      */
     public List<BloodPressureReading> getReadingsForPatient(Long patientId) {
-        return patientRepository.findById(patientId)
-                .map(bpRepository::findByPatient)
-                .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + patientId));
+        return requirePatientIfEmpty(patientId, bpRepository.findByPatientId(patientId));
     }
 
     /**
@@ -79,9 +93,47 @@ public class BloodPressureService {
      * @return a page of blood pressure readings for the patient
      */
     public Page<BloodPressureReading> getReadingsForPatient(Long patientId, Pageable pageable) {
-        return patientRepository.findById(patientId)
-                .map(patient -> bpRepository.findByPatient(patient, pageable))
-                .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + patientId));
+        Page<BloodPressureReading> page = bpRepository.findByPatientId(patientId, pageable);
+        if (page.isEmpty()) {
+            requirePatient(patientId);
+        }
+        return page;
+    }
+
+    /**
+     * Get a summary of a patient's readings without loading reading entities
+     * @param patientId the patient ID
+     * @param recentCount the number of recent readings to include
+     * @return the reading count and the most recent readings
+     */
+    public ReadingSummary getReadingSummary(Long patientId, int recentCount) {
+        return new ReadingSummary(bpRepository.countByPatientId(patientId),
+                bpRepository.findRecentByPatientId(patientId, Limit.of(recentCount)));
+    }
+
+    /**
+     * Get a page of a patient's reading list, newest first, using keyset pagination
+     * @param patientId the patient ID
+     * @param cursor the continuation token from the previous page, or null for the first page
+     * @param size the page size, from 1 to {@link CursorPage#MAX_SIZE}
+     * @return a page of reading list items ordered by reading time and ID descending
+     * @throws IllegalArgumentException if the cursor is malformed or the page size is out of range
+     */
+    public CursorPage<ReadingListItem> getReadingsForPatient(Long patientId, String cursor, int size) {
+        Limit limit = Limit.of(CursorPage.fetchSize(size));
+        List<ReadingListItem> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = bpRepository.findListItemsByPatientId(patientId, limit);
+        } else {
+            String[] keys = CursorPage.decodeCursor(cursor, 2);
+            try {
+                rows = bpRepository.findListItemsForPatientBefore(patientId, LocalDateTime.parse(keys[0]), Long.valueOf(keys[1]), limit);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid page cursor", e);
+            }
+        }
+        return CursorPage.of(rows, size,
+                reading -> CursorPage.encodeCursor(reading.readingTime(), reading.id()));
     }
 
     /**
@@ -90,9 +142,7 @@ public class BloodPressureService {
      * @return a list of blood pressure readings for the patient, ordered by reading time descending
      */
     public List<BloodPressureReading> getReadingsForPatientOrderedByTimeDesc(Long patientId) {
-        return patientRepository.findById(patientId)
-                .map(bpRepository::findByPatientOrderByReadingTimeDesc)
-                .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + patientId));
+        return requirePatientIfEmpty(patientId, bpRepository.findByPatientIdOrderByReadingTimeDesc(patientId));
     }
 
     /**
@@ -101,13 +151,9 @@ public class BloodPressureService {
      * @return the latest blood pressure reading for the patient, or null if none exists
      */
     public BloodPressureReading getLatestReadingForPatient(Long patientId) {
-        return patientRepository.findById(patientId)
-                .map(patient -> {
-                    List<BloodPressureReading> readings = bpRepository.findLatestByPatient(
-                            patient, PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "readingTime")));
-                    return readings.isEmpty() ? null : readings.get(0);
-                })
-                .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + patientId));
+        List<BloodPressureReading> readings = requirePatientIfEmpty(patientId,
+                bpRepository.findByPatientIdOrderByReadingTimeDescIdDesc(patientId, Limit.of(1)));
+        return readings.isEmpty() ? null : readings.get(0);
     }
 
     /**
@@ -118,9 +164,38 @@ public class BloodPressureService {
      * @return a list of blood pressure readings for the patient between the two dates
      */
     public List<BloodPressureReading> getReadingsForPatientBetweenDates(Long patientId, LocalDateTime startDate, LocalDateTime endDate) {
-        return patientRepository.findById(patientId)
-                .map(patient -> bpRepository.findByPatientAndReadingTimeBetween(patient, startDate, endDate))
-                .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + patientId));
+        return requirePatientIfEmpty(patientId,
+                bpRepository.findByPatientIdAndReadingTimeBetween(patientId, startDate, endDate));
+    }
+
+    /**
+     * Stream the time series values of a patient's readings between two dates to a consumer,
+     * without materializing reading entities. When a maximum point count is given and exceeded,
+     * the series is downsampled with Largest-Triangle-Three-Buckets. The caller checks that the patient
+     * exists, before any point is written; an unknown patient streams no points.
+     * @param patientId the patient ID
+     * @param startDate the start date
+     * @param endDate the end date
+     * @param maxPoints the maximum number of points to emit (at least 3), or null for all points
+     * @param consumer the consumer receiving the points in reading time order
+     */
+    @Transactional(readOnly = true)
+    public void streamChartPoints(Long patientId, LocalDateTime startDate, LocalDateTime endDate,
+                                  Integer maxPoints, Consumer<ReadingPoint> consumer) {
+        LttbDownsampler downsampler = null;
+        if (maxPoints != null) {
+            long total = bpRepository.countByPatientIdAndReadingTimeBetween(patientId, startDate, endDate);
+            if (total > maxPoints) {
+                downsampler = new LttbDownsampler(total, maxPoints, consumer);
+            }
+        }
+
+        try (Stream<ReadingPoint> points = bpRepository.streamPointsByPatientIdBetween(patientId, startDate, endDate)) {
+            points.forEach(downsampler != null ? downsampler : consumer);
+        }
+        if (downsampler != null) {
+            downsampler.finish();
+        }
     }
 
     /**
@@ -129,9 +204,17 @@ public class BloodPressureService {
      * @return a list of critical blood pressure readings for the patient
      */
     public List<BloodPressureReading> getCriticalReadingsForPatient(Long patientId) {
-        return patientRepository.findById(patientId)
-                .map(patient -> bpRepository.findByPatientAndAlertLevel(patient, BloodPressureReading.AlertLevel.CRITICAL))
-                .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + patientId));
+        return requirePatientIfEmpty(patientId,
+                bpRepository.findByPatientIdAndAlertLevel(patientId, BloodPressureReading.AlertLevel.CRITICAL));
+    }
+
+    /**
+     * Get the most recent critical readings across all patients, with their patient names
+     * @param count the number of readings
+     * @return a list of critical readings, most recent first
+     */
+    public List<CriticalReading> getRecentCriticalReadings(int count) {
+        return bpRepository.findRecentCritical(Limit.of(count));
     }
 
     /**
@@ -143,7 +226,8 @@ public class BloodPressureService {
      */
     @Transactional
     public BloodPressureReading createReading(Long patientId, BloodPressureReading reading, User recordedBy) {
-        Patient patient = patientRepository.findById(patientId)
+        timeTransaction("bptracker.readings.create");
+        Patient patient = patientLookupCache.findById(patientId)
                 .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + patientId));
 
         reading.setPatient(patient);
@@ -154,6 +238,9 @@ public class BloodPressureService {
         reading.calculateAlertLevel();
 
         BloodPressureReading savedReading = bpRepository.save(reading);
+        statisticsService.recordReadingCreated(savedReading.getAlertLevel());
+        rollupService.addReading(patientId, savedReading);
+        alertService.publishReadingAlert(savedReading);
 
         // Check if the reading is critical and trigger an alert if necessary
         if (reading.isCritical(criticalSystolicThreshold, criticalDiastolicThreshold)) {
@@ -171,6 +258,7 @@ public class BloodPressureService {
      */
     @Transactional
     public BloodPressureReading updateReading(Long id, BloodPressureReading updatedReading) {
+        timeTransaction("bptracker.readings.update");
         return bpRepository.findById(id)
                 .map(reading -> {
                     // Update fields
@@ -188,9 +276,13 @@ public class BloodPressureService {
                     reading.setNotes(updatedReading.getNotes());
 
                     // Recalculate alert level
+                    BloodPressureReading.AlertLevel previousLevel = reading.getAlertLevel();
                     reading.calculateAlertLevel();
 
                     BloodPressureReading savedReading = bpRepository.save(reading);
+                    statisticsService.recordReadingUpdated(previousLevel, savedReading.getAlertLevel());
+                    rollupService.recomputeBuckets(savedReading.getPatient().getId(), savedReading.getReadingTime());
+                    trendStateRepository.markWindowStale(savedReading.getPatient().getId());
 
                     // Check if the reading is critical and trigger an alert if necessary
                     if (reading.isCritical(criticalSystolicThreshold, criticalDiastolicThreshold)) {
@@ -208,7 +300,12 @@ public class BloodPressureService {
      */
     @Transactional
     public void deleteReading(Long id) {
-        bpRepository.deleteById(id);
+        bpRepository.findById(id).ifPresent(reading -> {
+            bpRepository.delete(reading);
+            statisticsService.recordReadingDeleted(reading.getAlertLevel());
+            rollupService.recomputeBuckets(reading.getPatient().getId(), reading.getReadingTime());
+            trendStateRepository.markWindowStale(reading.getPatient().getId());
+        });
     }
 
     /**
@@ -217,8 +314,41 @@ public class BloodPressureService {
      * @return the number of readings for the patient
      */
     public long countReadingsForPatient(Long patientId) {
-        return patientRepository.findById(patientId)
-                .map(bpRepository::countByPatient)
-                .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + patientId));
+        long count = bpRepository.countByPatientId(patientId);
+        if (count == 0) {
+            requirePatient(patientId);
+        }
+        return count;
+    }
+
+    // Readings are queried by patient ID directly, so a missing patient only has to be told apart
+    // from a patient without readings when a query comes back empty
+    private <T extends Collection<?>> T requirePatientIfEmpty(Long patientId, T result) {
+        if (result.isEmpty()) {
+            requirePatient(patientId);
+        }
+        return result;
+    }
+
+    private void requirePatient(Long patientId) {
+        if (!patientLookupCache.existsById(patientId)) {
+            throw new IllegalArgumentException("Patient not found with id: " + patientId);
+        }
+    }
+
+    /**
+     * Time the current transaction from now until it completes, so the time includes flushing and committing.
+     * Recorded with an outcome tag of "committed" or "rolled_back".
+     * @param timerName the name of the timer
+     */
+    private void timeTransaction(String timerName) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                sample.stop(meterRegistry.timer(timerName, "outcome",
+                        status == STATUS_COMMITTED ? "committed" : "rolled_back"));
+            }
+        });
     }
 }
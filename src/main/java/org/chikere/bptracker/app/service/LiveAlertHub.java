@@ -0,0 +1,171 @@
+package org.chikere.bptracker.app.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.chikere.bptracker.app.dto.LiveAlert;
+import org.chikere.bptracker.app.event.AlertEvent;
+import org.chikere.bptracker.app.event.ReadingAlertEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory fan-out of alerts to dashboards connected over Server-Sent Events.
+ * Each subscriber has a bounded buffer drained by its own virtual thread, so publishing never waits on a client.
+ * When a buffer overflows, e.g. during a bulk import with many high readings, the oldest alerts are dropped and
+ * the subscriber is sent a "missed" event with their count, upon which the browser reloads the dashboard.
+ * Alerts are only pushed once the transaction that raised them has committed.
+ */
+@Service
+@Slf4j
+public class LiveAlertHub {
+
+    @Value("${app.dashboard.live.max-subscribers:500}")
+    private int maxSubscribers;
+
+    @Value("${app.dashboard.live.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${app.dashboard.live.heartbeat:PT25S}")
+    private Duration heartbeat;
+
+    @Value("${app.dashboard.live.timeout:PT30M}")
+    private Duration timeout;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Subscribe a dashboard to live alerts
+     * @return the event stream, or empty if the maximum number of subscribers is connected
+     */
+    public Optional<SseEmitter> subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            log.warn("Rejecting live alert subscriber, {} already connected", subscribers.size());
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize),
+                "live-alerts-" + sequence.incrementAndGet());
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+        subscribers.add(subscriber);
+        subscriber.sender.start();
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Push a high or critical reading to connected dashboards
+     * @param event the reading alert event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReadingAlert(ReadingAlertEvent event) {
+        String message = String.format("%s BP reading for %s: %d/%d", event.alertLevel(), event.patientName(),
+                event.systolicPressure(), event.diastolicPressure());
+        publish(new LiveAlert(LiveAlert.Type.READING, event.patientId(), event.readingId(), event.alertLevel(),
+                message, event.readingTime()));
+    }
+
+    /**
+     * Push a trend alert to connected dashboards. High BP alerts are already pushed as reading alerts.
+     * @param event the alert event
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAlert(AlertEvent event) {
+        if (event.type() == AlertEvent.Type.ABNORMAL_TREND) {
+            publish(new LiveAlert(LiveAlert.Type.TREND, event.patientId(), event.readingId(), null,
+                    event.logMessage(), LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Get the number of connected dashboards
+     * @return the subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void stop() {
+        subscribers.forEach(this::close);
+    }
+
+    private void publish(LiveAlert alert) {
+        for (Subscriber subscriber : subscribers) {
+            while (!subscriber.buffer.offer(alert)) {
+                // Make room by dropping the oldest alert; the sender reports how many were missed
+                if (subscriber.buffer.poll() != null && subscriber.missed.getAndIncrement() == 0) {
+                    log.debug("Live alert buffer of {} full, dropping oldest alerts", subscriber.sender.getName());
+                }
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            // The sender completes the emitter itself, so a client stuck mid-write never blocks the caller
+            subscriber.sender.interrupt();
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<LiveAlert> buffer;
+        private final AtomicInteger missed = new AtomicInteger();
+        private final Thread sender;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<LiveAlert> buffer, String name) {
+            this.emitter = emitter;
+            this.buffer = buffer;
+            this.sender = Thread.ofVirtual().name(name).unstarted(this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                emitter.send(SseEmitter.event().comment("connected"));
+                while (subscribers.contains(this)) {
+                    LiveAlert alert = buffer.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    int missedAlerts = missed.getAndSet(0);
+                    if (missedAlerts > 0) {
+                        emitter.send(SseEmitter.event().name("missed").data(missedAlerts));
+                    }
+                    if (alert == null) {
+                        if (missedAlerts == 0) {
+                            emitter.send(SseEmitter.event().comment("heartbeat"));
+                        }
+                    } else {
+                        emitter.send(SseEmitter.event().name("alert").data(alert, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                // Client went away, or the emitter already completed or timed out
+                log.debug("Live alert subscriber disconnected: {}", e.getMessage());
+            } finally {
+                close(this);
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.chikere.bptracker.app.service;
+
+import org.chikere.bptracker.app.dto.ReadingPoint;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming Largest-Triangle-Three-Buckets downsampler for time-ordered reading points.
+ * Points are pushed one at a time and at most {@code threshold} points are passed downstream.
+ * Only two buckets are buffered at any time, so memory is bounded by the bucket size rather than the series length.
+ * The triangle area is the sum of the systolic and diastolic areas, so both series keep their peaks.
+ */
+class LttbDownsampler implements Consumer<ReadingPoint> {
+
+    private final int threshold;
+    private final double bucketSize;
+    private final Consumer<ReadingPoint> downstream;
+
+    private long index;
+    private ReadingPoint pending;
+    private ReadingPoint selected;
+    private int currentBucket;
+    private List<ReadingPoint> current = new ArrayList<>();
+    private List<ReadingPoint> next = new ArrayList<>();
+
+    /**
+     * Create a downsampler
+     * @param expectedPoints the expected number of points in the series
+     * @param threshold the maximum number of points to emit, at least 3
+     * @param downstream the consumer receiving the selected points
+     */
+    LttbDownsampler(long expectedPoints, int threshold, Consumer<ReadingPoint> downstream) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("Downsampling threshold must be at least 3");
+        }
+        this.threshold = threshold;
+        this.bucketSize = Math.max(1.0, (double) (expectedPoints - 2) / (threshold - 2));
+        this.downstream = downstream;
+    }
+
+    @Override
+    public void accept(ReadingPoint point) {
+        if (pending != null) {
+            place(pending);
+        }
+        pending = point;
+    }
+
+    /**
+     * Flush the remaining buckets and emit the final point of the series
+     */
+    void finish() {
+        if (pending == null) {
+            return;
+        }
+        if (selected == null) {
+            // Single point series
+            emit(pending);
+            return;
+        }
+        if (!next.isEmpty()) {
+            selectFrom(current, averageOf(next));
+            current = next;
+        }
+        if (!current.isEmpty()) {
+            selectFrom(current, new double[]{x(pending), pending.systolic(), pending.diastolic()});
+        }
+        emit(pending);
+    }
+
+    private void place(ReadingPoint point) {
+        long position = index++;
+        if (position == 0) {
+            emit(point);
+            return;
+        }
+
+        int bucket = (int) Math.min((position - 1) / bucketSize, threshold - 3);
+        if (bucket == currentBucket) {
+            current.add(point);
+        } else if (bucket == currentBucket + 1) {
+            next.add(point);
+        } else {
+            // The bucket after 'next' has started, so the current bucket can be resolved
+            selectFrom(current, averageOf(next));
+            current = next;
+            next = new ArrayList<>();
+            next.add(point);
+            currentBucket++;
+        }
+    }
+
+    private void selectFrom(List<ReadingPoint> bucket, double[] average) {
+        double ax = x(selected);
+        ReadingPoint best = null;
+        double bestArea = -1;
+        for (ReadingPoint candidate : bucket) {
+            double cx = x(candidate);
+            double area = triangleArea(ax, selected.systolic(), cx, candidate.systolic(), average[0], average[1])
+                    + triangleArea(ax, selected.diastolic(), cx, candidate.diastolic(), average[0], average[2]);
+            if (area > bestArea) {
+                bestArea = area;
+                best = candidate;
+            }
+        }
+        if (best != null) {
+            emit(best);
+        }
+    }
+
+    private void emit(ReadingPoint point) {
+        selected = point;
+        downstream.accept(point);
+    }
+
+    private static double[] averageOf(List<ReadingPoint> bucket) {
+        double sumX = 0;
+        double sumSystolic = 0;
+        double sumDiastolic = 0;
+        for (ReadingPoint point : bucket) {
+            sumX += x(point);
+            sumSystolic += point.systolic();
+            sumDiastolic += point.diastolic();
+        }
+        int size = bucket.size();
+        return new double[]{sumX / size, sumSystolic / size, sumDiastolic / size};
+    }
+
+    private static double triangleArea(double ax, double ay, double bx, double by, double cx, double cy) {
+        return Math.abs((ax - cx) * (by - ay) - (ax - bx) * (cy - ay)) / 2;
+    }
+
+    private static double x(ReadingPoint point) {
+        return point.readingTime().toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,55 @@
+package org.chikere.bptracker.app.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mock SMS provider that logs messages instead of sending them.
+ * Request latency and failure rate are configurable to exercise batching, throttling and retries locally.
+ */
+@Component
+@Slf4j
+public class MockSmsProvider implements SmsProvider {
+
+    @Value("${app.sms.mock.latency:PT0.05S}")
+    private Duration latency;
+
+    @Value("${app.sms.mock.failure-rate:0.0}")
+    private double failureRate;
+
+    @Value("${app.sms.mock.max-batch-size:100}")
+    private int maxBatchSize;
+
+    @Override
+    public String getName() {
+        return "mock";
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public void sendBatch(List<Message> messages) {
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SmsDeliveryException("Interrupted while sending");
+        }
+
+        if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+            throw new SmsDeliveryException("Simulated provider failure");
+        }
+
+        for (Message message : messages) {
+            log.info("MOCK SMS: To: {}, Message: {}", message.phoneNumber(), message.text());
+        }
+    }
+}
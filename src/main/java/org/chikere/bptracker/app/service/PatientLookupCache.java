@@ -0,0 +1,75 @@
+package org.chikere.bptracker.app.service;
+
+import lombok.RequiredArgsConstructor;
+import org.chikere.bptracker.app.model.Patient;
+import org.chikere.bptracker.app.repository.PatientRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Memoizes patient lookups for the duration of a web request, so that a controller and the services
+ * it calls load each patient at most once per request. Outside a request every lookup goes to the repository,
+ * where it is usually answered by the Hibernate second-level cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class PatientLookupCache {
+
+    private static final String ATTRIBUTE = PatientLookupCache.class.getName() + ".patients";
+
+    private final PatientRepository patientRepository;
+
+    /**
+     * Find a patient by ID, reusing the result of an earlier lookup in the current request
+     * @param id the patient ID
+     * @return an Optional containing the patient if found, or empty if not found
+     */
+    public Optional<Patient> findById(Long id) {
+        Map<Long, Optional<Patient>> patients = requestPatients(true);
+        if (patients == null) {
+            return patientRepository.findById(id);
+        }
+        return patients.computeIfAbsent(id, patientRepository::findById);
+    }
+
+    /**
+     * Check whether a patient exists. Goes through the same lookup as findById, so it is answered
+     * from the current request or the second-level cache when the patient was loaded before.
+     * @param id the patient ID
+     * @return true if the patient exists
+     */
+    public boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Forget a patient loaded in the current request, e.g. after it was updated or deleted
+     * @param id the patient ID
+     */
+    public void evict(Long id) {
+        Map<Long, Optional<Patient>> patients = requestPatients(false);
+        if (patients != null) {
+            patients.remove(id);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Optional<Patient>> requestPatients(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<Long, Optional<Patient>> patients =
+                (Map<Long, Optional<Patient>>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (patients == null && create) {
+            patients = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, patients, RequestAttributes.SCOPE_REQUEST);
+        }
+        return patients;
+    }
+}
@@ -0,0 +1,293 @@
+package org.chikere.bptracker.app.service;
+
+import org.chikere.bptracker.app.dto.PatientSuggestion;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over patient names, so that name searches never scan the patients table.
+ * Each distinct name token is stored once: tokens are found by prefix through a sorted set and by
+ * substring or similarity through their trigrams, then mapped to the patients carrying them.
+ * The index is built at startup and kept in sync by PatientService after each committed change.
+ */
+@Component
+public class PatientSearchIndex {
+
+    // Match scores per query word, highest first
+    private static final int EXACT = 4;
+    private static final int PREFIX = 3;
+    private static final int SUBSTRING = 2;
+    private static final int FUZZY = 1;
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt(Hit::score).reversed()
+            .thenComparing(Hit::sortKey)
+            .thenComparing(Hit::id);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> patients = new HashMap<>();
+    private final Map<String, Set<Long>> tokenPatients = new HashMap<>();
+    private final NavigableSet<String> tokens = new TreeSet<>();
+    private final Map<String, Set<String>> trigramTokens = new HashMap<>();
+
+    /**
+     * Remove all patients from the index
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            patients.clear();
+            tokenPatients.clear();
+            tokens.clear();
+            trigramTokens.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace the entries of patients
+     * @param suggestions the patients' names and contact details
+     */
+    public void index(List<PatientSuggestion> suggestions) {
+        lock.writeLock().lock();
+        try {
+            suggestions.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a patient's entry
+     * @param patientId the ID of the deleted patient
+     */
+    public void remove(Long patientId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(patientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Search patients by name. Every word of the query must match a word of the patient's name exactly,
+     * as a prefix, as a substring (words of three or more characters) or within a small edit distance
+     * (words of four or more characters). Results are ranked by match quality, then by name.
+     * @param query the search text
+     * @param maxResults the maximum number of results
+     * @return the IDs of the matching patients, best matches first
+     */
+    public List<Long> search(String query, int maxResults) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String word : words) {
+                Map<Long, Integer> wordScores = scorePatients(word);
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    scores.keySet().retainAll(wordScores.keySet());
+                    scores.replaceAll((id, score) -> score + wordScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(scores.size());
+            scores.forEach((id, score) -> hits.add(new Hit(id, score, patients.get(id).sortKey())));
+            return hits.stream()
+                    .sorted(RANKING)
+                    .limit(maxResults)
+                    .map(Hit::id)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of indexed patients
+     * @return the number of indexed patients
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return patients.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Split text into lower-case words without diacritics, e.g. "Zoë O'Neil" into "zoe", "o" and "neil"
+     * @param text the text to split
+     * @return the distinct words in order of appearance
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(normalize(text).split("[^\\p{L}\\p{N}]+"))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private Map<Long, Integer> scorePatients(String word) {
+        Map<String, Integer> matches = new HashMap<>();
+        if (tokenPatients.containsKey(word)) {
+            matches.put(word, EXACT);
+        }
+        for (String token : tokens.subSet(word, false, word + Character.MAX_VALUE, false)) {
+            matches.put(token, PREFIX);
+        }
+
+        if (word.length() >= 3) {
+            // A token containing the word shares all of the word's inner trigrams, and each edit
+            // (a transposition included) removes at most four of the word's trigrams
+            Set<String> wordTrigrams = trigrams(word);
+            int maxEdits = word.length() >= 8 ? 2 : word.length() >= 4 ? 1 : 0;
+            int minShared = Math.max(1, Math.min(word.length() - 2, wordTrigrams.size() - 4 * maxEdits));
+
+            Map<String, Integer> shared = new HashMap<>();
+            for (String trigram : wordTrigrams) {
+                for (String token : trigramTokens.getOrDefault(trigram, Set.of())) {
+                    shared.merge(token, 1, Integer::sum);
+                }
+            }
+            shared.forEach((token, count) -> {
+                if (count < minShared || matches.containsKey(token)) {
+                    return;
+                }
+                if (token.contains(word)) {
+                    matches.put(token, SUBSTRING);
+                } else if (maxEdits > 0 && editDistance(word, token, maxEdits) <= maxEdits) {
+                    matches.put(token, FUZZY);
+                }
+            });
+        }
+
+        Map<Long, Integer> scores = new HashMap<>();
+        matches.forEach((token, score) -> {
+            for (Long id : tokenPatients.get(token)) {
+                scores.merge(id, score, Math::max);
+            }
+        });
+        return scores;
+    }
+
+    private void put(PatientSuggestion patient) {
+        removeEntry(patient.id());
+        List<String> patientTokens = tokenize(patient.firstName() + " " + patient.lastName());
+        patients.put(patient.id(), new Entry(patientTokens, normalize(patient.lastName() + "\u0000" + patient.firstName())));
+        for (String token : patientTokens) {
+            tokenPatients.computeIfAbsent(token, t -> {
+                tokens.add(t);
+                trigrams(t).forEach(trigram -> trigramTokens.computeIfAbsent(trigram, k -> new HashSet<>()).add(t));
+                return new HashSet<>();
+            }).add(patient.id());
+        }
+    }
+
+    private void removeEntry(Long patientId) {
+        Entry entry = patients.remove(patientId);
+        if (entry == null) {
+            return;
+        }
+        for (String token : entry.tokens()) {
+            Set<Long> ids = tokenPatients.get(token);
+            if (ids == null || !ids.remove(patientId) || !ids.isEmpty()) {
+                continue;
+            }
+            tokenPatients.remove(token);
+            tokens.remove(token);
+            for (String trigram : trigrams(token)) {
+                Set<String> trigramSet = trigramTokens.get(trigram);
+                if (trigramSet != null && trigramSet.remove(token) && trigramSet.isEmpty()) {
+                    trigramTokens.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Trigrams of a word padded like PostgreSQL's pg_trgm, so that word starts weigh more than word ends
+     */
+    private static Set<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent transpositions),
+     * giving up with max + 1 as soon as the distance must exceed max
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previous2[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private record Entry(List<String> tokens, String sortKey) {
+    }
+
+    private record Hit(Long id, int score, String sortKey) {
+    }
+}
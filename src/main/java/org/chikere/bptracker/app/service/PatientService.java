@@ -1,24 +1,73 @@
 package org.chikere.bptracker.app.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.chikere.bptracker.app.dto.CursorPage;
+import org.chikere.bptracker.app.dto.PatientListItem;
+import org.chikere.bptracker.app.dto.PatientSuggestion;
 import org.chikere.bptracker.app.model.Patient;
 import org.chikere.bptracker.app.repository.PatientRepository;
+import org.chikere.bptracker.app.repository.PatientTrendStateRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service for managing patients
  */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class PatientService {
 
+    private static final int INDEX_REBUILD_CHUNK_SIZE = 1000;
+
     private final PatientRepository patientRepository;
+    private final PatientLookupCache patientLookupCache;
+    private final PatientTrendStateRepository trendStateRepository;
+    private final StatisticsService statisticsService;
+    private final RollupService rollupService;
+    private final PatientSearchIndex searchIndex;
+    private final PatientTypeaheadIndex typeaheadIndex;
+
+    @Value("${app.patients.search.max-results:1000}")
+    private int maxSearchResults;
+
+    /**
+     * Rebuild the in-memory search and typeahead indexes from the database,
+     * reading patients in ID-ordered chunks
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndexes() {
+        long start = System.currentTimeMillis();
+        searchIndex.clear();
+        typeaheadIndex.clear();
+
+        long lastId = 0;
+        List<PatientSuggestion> chunk;
+        while (!(chunk = patientRepository.findSuggestionsAfterId(lastId, Limit.of(INDEX_REBUILD_CHUNK_SIZE))).isEmpty()) {
+            searchIndex.index(chunk);
+            typeaheadIndex.index(chunk);
+            lastId = chunk.get(chunk.size() - 1).id();
+        }
+        log.info("Built patient search and typeahead indexes for {} patients in {} ms",
+                searchIndex.size(), System.currentTimeMillis() - start);
+    }
 
     /**
      * Get all patients
@@ -37,22 +86,79 @@ public class PatientService {
         return patientRepository.findAll(pageable);
     }
 
+    /**
+     * Get the most recently registered patients
+     * @param count the number of patients
+     * @return a list of patient list items, most recently registered first
+     */
+    public List<PatientListItem> getRecentPatients(int count) {
+        return patientRepository.findRecentListItems(Limit.of(count));
+    }
+
+    /**
+     * Get a page of the patient list in name order using keyset pagination
+     * @param cursor the continuation token from the previous page, or null for the first page
+     * @param size the page size, from 1 to {@link CursorPage#MAX_SIZE}
+     * @return a page of patient list items ordered by last name, first name and ID
+     * @throws IllegalArgumentException if the cursor is malformed or the page size is out of range
+     */
+    public CursorPage<PatientListItem> getPatientsPage(String cursor, int size) {
+        Limit limit = Limit.of(CursorPage.fetchSize(size));
+        List<PatientListItem> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = patientRepository.findListItemsOrderByName(limit);
+        } else {
+            String[] keys = CursorPage.decodeCursor(cursor, 3);
+            try {
+                rows = patientRepository.findListItemsAfter(keys[0], keys[1], Long.valueOf(keys[2]), limit);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid page cursor", e);
+            }
+        }
+        return CursorPage.of(rows, size,
+                patient -> CursorPage.encodeCursor(patient.lastName(), patient.firstName(), patient.id()));
+    }
+
     /**
      * Get a patient by ID
      * @param id the patient ID
      * @return an Optional containing the patient if found, or empty if not found
      */
     public Optional<Patient> getPatientById(Long id) {
-        return patientRepository.findById(id);
+        return patientLookupCache.findById(id);
     }
 
     /**
-     * Search for patients by name
+     * Search for patients by name using the in-memory search index, best matches first
      * @param searchTerm the search term
-     * @return a list of patients matching the search term
+     * @param pageable pagination information
+     * @return a page of patient list items matching the search term
+     */
+    public Page<PatientListItem> searchPatientsByName(String searchTerm, Pageable pageable) {
+        List<Long> ids = searchIndex.search(searchTerm, maxSearchResults);
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        List<Long> pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.size());
+        }
+
+        Map<Long, PatientListItem> patients = patientRepository.findListItemsByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(PatientListItem::id, Function.identity()));
+        List<PatientListItem> content = pageIds.stream()
+                .map(patients::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, pageable, ids.size());
+    }
+
+    /**
+     * Suggest patients for a partially typed name, phone number or email from the in-memory typeahead index
+     * @param query the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return the matching patients
      */
-    public List<Patient> searchPatientsByName(String searchTerm) {
-        return patientRepository.searchByName(searchTerm);
+    public List<PatientSuggestion> suggestPatients(String query, int limit) {
+        return typeaheadIndex.suggest(query, limit);
     }
 
     /**
@@ -98,7 +204,10 @@ public class PatientService {
      */
     @Transactional
     public Patient createPatient(Patient patient) {
-        return patientRepository.save(patient);
+        Patient savedPatient = patientRepository.save(patient);
+        statisticsService.recordPatientCreated();
+        indexAfterCommit(savedPatient);
+        return savedPatient;
     }
 
     /**
@@ -109,7 +218,7 @@ public class PatientService {
      */
     @Transactional
     public Patient updatePatient(Long id, Patient updatedPatient) {
-        return patientRepository.findById(id)
+        return patientLookupCache.findById(id)
                 .map(patient -> {
                     // Update fields
                     patient.setFirstName(updatedPatient.getFirstName());
@@ -121,7 +230,9 @@ public class PatientService {
                     patient.setAddress(updatedPatient.getAddress());
                     patient.setMedicalHistory(updatedPatient.getMedicalHistory());
                     
-                    return patientRepository.save(patient);
+                    Patient savedPatient = patientRepository.save(patient);
+                    indexAfterCommit(savedPatient);
+                    return savedPatient;
                 })
                 .orElseThrow(() -> new IllegalArgumentException("Patient not found with id: " + id));
     }
@@ -132,6 +243,42 @@ public class PatientService {
      */
     @Transactional
     public void deletePatient(Long id) {
-        patientRepository.deleteById(id);
+        patientRepository.findById(id).ifPresent(patient -> {
+            statisticsService.recordPatientDeleted(id);
+            rollupService.deleteForPatient(id);
+            trendStateRepository.deleteByPatientId(id);
+            patientRepository.delete(patient);
+            afterCommit(() -> {
+                searchIndex.remove(id);
+                typeaheadIndex.remove(id);
+            });
+        });
+        patientLookupCache.evict(id);
+    }
+
+    /**
+     * Add or replace a patient in the search and typeahead indexes once the current transaction commits,
+     * with the values saved now
+     */
+    private void indexAfterCommit(Patient patient) {
+        List<PatientSuggestion> suggestion = List.of(new PatientSuggestion(patient.getId(), patient.getFirstName(),
+                patient.getLastName(), patient.getPhoneNumber(), patient.getEmail()));
+        afterCommit(() -> {
+            searchIndex.index(suggestion);
+            typeaheadIndex.index(suggestion);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,367 @@
+package org.chikere.bptracker.app.service;
+
+import org.chikere.bptracker.app.dto.PatientSuggestion;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory prefix trie for patient typeahead lookups by name, phone number or email,
+ * answering from memory without touching the database.
+ * Keys are the words of a patient's name and email address and the digits of their phone number,
+ * both whole and group by group, stored in a path-compressed trie whose nodes count the keys below
+ * them. A query walks the trie for its most selective word and keeps the patients whose keys also
+ * start with the other words.
+ * The trie is built at startup and kept in sync by PatientService after each committed change.
+ */
+@Component
+public class PatientTypeaheadIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> patients = new HashMap<>();
+    private Node root = new Node("");
+
+    /**
+     * Remove all patients from the trie
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            patients.clear();
+            root = new Node("");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add or replace the keys of patients
+     * @param suggestions the patients' names and contact details
+     */
+    public void index(List<PatientSuggestion> suggestions) {
+        lock.writeLock().lock();
+        try {
+            suggestions.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a patient's keys
+     * @param patientId the ID of the deleted patient
+     */
+    public void remove(Long patientId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(patientId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Suggest patients whose name words, email words or phone number start with the words of a query.
+     * A query made of digit groups, such as "555 123-45", is first matched against whole phone numbers
+     * ignoring punctuation, then group by group. Suggestions are ordered by matching key, so exact
+     * word matches come first.
+     * @param query the text typed so far
+     * @param limit the maximum number of suggestions
+     * @return the matching patients
+     */
+    public List<PatientSuggestion> suggest(String query, int limit) {
+        List<String> words = PatientSearchIndex.tokenize(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (words.size() > 1 && query.chars().noneMatch(Character::isLetter)) {
+                List<PatientSuggestion> byNumber = lookup(List.of(String.join("", words)), limit);
+                if (!byNumber.isEmpty()) {
+                    return byNumber;
+                }
+            }
+            return lookup(words, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the number of indexed patients
+     * @return the number of indexed patients
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return patients.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<PatientSuggestion> lookup(List<String> words, int limit) {
+        // Walk the word with the fewest keys below it and filter by the others
+        Node best = null;
+        String bestWord = null;
+        for (String word : words) {
+            Node node = find(word);
+            if (node == null) {
+                return List.of();
+            }
+            if (best == null || node.count < best.count) {
+                best = node;
+                bestWord = word;
+            }
+        }
+        List<String> others = new ArrayList<>(words);
+        others.remove(bestWord);
+
+        Set<Long> ids = new LinkedHashSet<>();
+        collect(best, id -> others.isEmpty() || patients.get(id).matchesAll(others), ids, limit);
+        return ids.stream().map(id -> patients.get(id).suggestion()).toList();
+    }
+
+    private void put(PatientSuggestion suggestion) {
+        removeEntry(suggestion.id());
+        Set<String> keys = new LinkedHashSet<>(
+                PatientSearchIndex.tokenize(suggestion.firstName() + " " + suggestion.lastName()));
+        keys.addAll(PatientSearchIndex.tokenize(suggestion.email()));
+        List<String> phoneGroups = PatientSearchIndex.tokenize(suggestion.phoneNumber());
+        if (!phoneGroups.isEmpty()) {
+            keys.add(String.join("", phoneGroups));
+            keys.addAll(phoneGroups);
+        }
+
+        Entry entry = new Entry(suggestion, keys.toArray(String[]::new));
+        patients.put(suggestion.id(), entry);
+        for (String key : entry.keys()) {
+            insert(root, key, 0, suggestion.id());
+        }
+    }
+
+    private void removeEntry(Long patientId) {
+        Entry entry = patients.remove(patientId);
+        if (entry == null) {
+            return;
+        }
+        for (String key : entry.keys()) {
+            delete(root, key, 0, patientId);
+        }
+    }
+
+    private Node find(String prefix) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            int i = node.childIndex(prefix.charAt(pos));
+            if (i < 0) {
+                return null;
+            }
+            Node child = node.children[i];
+            int length = Math.min(child.label.length(), prefix.length() - pos);
+            if (!child.label.regionMatches(0, prefix, pos, length)) {
+                return null;
+            }
+            pos += length;
+            node = child;
+        }
+        return node;
+    }
+
+    private static boolean insert(Node node, String key, int pos, long id) {
+        boolean added;
+        if (pos == key.length()) {
+            added = node.addId(id);
+        } else {
+            int i = node.childIndex(key.charAt(pos));
+            if (i < 0) {
+                Node leaf = new Node(key.substring(pos));
+                leaf.addId(id);
+                leaf.count = 1;
+                node.insertChild(-(i + 1), leaf);
+                added = true;
+            } else {
+                Node child = node.children[i];
+                int common = 1;
+                while (common < child.label.length() && pos + common < key.length()
+                        && child.label.charAt(common) == key.charAt(pos + common)) {
+                    common++;
+                }
+                if (common < child.label.length()) {
+                    // Split the edge where the key leaves it
+                    Node split = new Node(child.label.substring(0, common));
+                    child.label = child.label.substring(common);
+                    split.children = new Node[] {child};
+                    split.count = child.count;
+                    node.children[i] = split;
+                    child = split;
+                }
+                added = insert(child, key, pos + common, id);
+            }
+        }
+        if (added) {
+            node.count++;
+        }
+        return added;
+    }
+
+    private static boolean delete(Node node, String key, int pos, long id) {
+        boolean removed;
+        if (pos == key.length()) {
+            removed = node.removeId(id);
+        } else {
+            int i = node.childIndex(key.charAt(pos));
+            if (i < 0 || !key.startsWith(node.children[i].label, pos)) {
+                return false;
+            }
+            Node child = node.children[i];
+            removed = delete(child, key, pos + child.label.length(), id);
+            if (removed) {
+                if (child.count == 0) {
+                    node.removeChild(i);
+                } else if (child.ids == null && child.children.length == 1) {
+                    // Merge a node left with a single child back into one edge
+                    Node only = child.children[0];
+                    only.label = child.label + only.label;
+                    node.children[i] = only;
+                }
+            }
+        }
+        if (removed) {
+            node.count--;
+        }
+        return removed;
+    }
+
+    private static boolean collect(Node node, LongPredicate accept, Set<Long> ids, int limit) {
+        for (int i = 0; i < node.idCount; i++) {
+            long id = node.ids[i];
+            if (accept.test(id)) {
+                ids.add(id);
+                if (ids.size() >= limit) {
+                    return true;
+                }
+            }
+        }
+        for (Node child : node.children) {
+            if (collect(child, accept, ids, limit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A trie node reached over an edge labelled with one or more characters. Children are kept
+     * sorted by the first character of their labels, so a depth-first walk visits keys in order.
+     */
+    private static final class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private long[] ids;
+        private int idCount;
+        private int count;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label.charAt(0);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void insertChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        private void removeChild(int index) {
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk.length == 0 ? NO_CHILDREN : shrunk;
+        }
+
+        private boolean addId(long id) {
+            if (ids == null) {
+                ids = new long[] {id};
+                idCount = 1;
+                return true;
+            }
+            int i = Arrays.binarySearch(ids, 0, idCount, id);
+            if (i >= 0) {
+                return false;
+            }
+            int index = -(i + 1);
+            if (idCount == ids.length) {
+                // Grow geometrically, as shared keys such as email domains collect many patients
+                ids = Arrays.copyOf(ids, idCount + Math.max(1, idCount >> 1));
+            }
+            System.arraycopy(ids, index, ids, index + 1, idCount - index);
+            ids[index] = id;
+            idCount++;
+            return true;
+        }
+
+        private boolean removeId(long id) {
+            int i = ids == null ? -1 : Arrays.binarySearch(ids, 0, idCount, id);
+            if (i < 0) {
+                return false;
+            }
+            if (idCount == 1) {
+                ids = null;
+                idCount = 0;
+                return true;
+            }
+            System.arraycopy(ids, i + 1, ids, i, idCount - i - 1);
+            idCount--;
+            if (idCount <= ids.length >> 2) {
+                ids = Arrays.copyOf(ids, idCount);
+            }
+            return true;
+        }
+    }
+
+    private record Entry(PatientSuggestion suggestion, String[] keys) {
+
+        private boolean matchesAll(List<String> words) {
+            for (String word : words) {
+                if (Arrays.stream(keys).noneMatch(key -> key.startsWith(word))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
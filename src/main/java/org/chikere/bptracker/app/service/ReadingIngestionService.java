@@ -0,0 +1,215 @@
+package org.chikere.bptracker.app.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.chikere.bptracker.app.dto.BulkIngestResult;
+import org.chikere.bptracker.app.dto.BulkReadingRow;
+import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.chikere.bptracker.app.model.Patient;
+import org.chikere.bptracker.app.model.User;
+import org.chikere.bptracker.app.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for ingesting batches of blood pressure readings from device gateways.
+ * Rows are validated and classified in memory and stored with JDBC batch inserts,
+ * since the IDENTITY id strategy on BloodPressureReading disables Hibernate insert batching.
+ * The generated IDs are read back, so alerts raised for ingested readings refer to the stored readings.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReadingIngestionService {
+
+    private static final String INSERT_SQL = "INSERT INTO blood_pressure_readings " +
+            "(patient_id, systolic, diastolic, heart_rate, weight_kg, spo2_percentage, notes, reading_time, " +
+            "measurement_method, arm_used, body_position, activity_before, device_id, device_model, " +
+            "created_at, recorded_by, alert_level) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+    private final PatientRepository patientRepository;
+    private final StatisticsService statisticsService;
+    private final RollupService rollupService;
+    private final AlertService alertService;
+
+    @Value("${app.bulk.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.bp.critical.systolic:180}")
+    private int criticalSystolicThreshold;
+
+    @Value("${app.bp.critical.diastolic:120}")
+    private int criticalDiastolicThreshold;
+
+    /**
+     * Validate and store a batch of readings for any number of patients.
+     * Invalid rows are reported and skipped; valid rows are stored in a single transaction.
+     * @param rows the rows to ingest; null entries are rejected as malformed
+     * @param recordedBy the user (gateway account) submitting the readings
+     * @return the per-row results
+     */
+    @Transactional
+    public BulkIngestResult ingest(List<BulkReadingRow> rows, User recordedBy) {
+        Map<Long, Patient> patients = patientRepository.findAllById(rows.stream()
+                        .filter(Objects::nonNull)
+                        .map(BulkReadingRow::patientId)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<BulkIngestResult.RowResult> results = new ArrayList<>(rows.size());
+        List<BloodPressureReading> accepted = new ArrayList<>();
+
+        for (int i = 0; i < rows.size(); i++) {
+            BulkReadingRow row = rows.get(i);
+            if (row == null) {
+                results.add(rejected(i, List.of("Malformed row")));
+                continue;
+            }
+
+            Patient patient = row.patientId() == null ? null : patients.get(row.patientId());
+            if (patient == null) {
+                results.add(rejected(i, List.of("Patient not found with id: " + row.patientId())));
+                continue;
+            }
+
+            BloodPressureReading reading = toReading(row, patient, recordedBy, now);
+            List<String> errors = validator.validate(reading).stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .toList();
+            if (!errors.isEmpty()) {
+                results.add(rejected(i, errors));
+                continue;
+            }
+
+            reading.calculateAlertLevel();
+            accepted.add(reading);
+            results.add(new BulkIngestResult.RowResult(i, BulkIngestResult.Status.ACCEPTED, reading.getAlertLevel(), List.of()));
+        }
+
+        if (!accepted.isEmpty()) {
+            insertBatch(accepted);
+            rollupService.addReadings(accepted);
+            for (BloodPressureReading reading : accepted) {
+                statisticsService.recordReadingCreated(reading.getAlertLevel());
+                alertService.publishReadingAlert(reading);
+                if (reading.isCritical(criticalSystolicThreshold, criticalDiastolicThreshold)) {
+                    alertService.triggerHighBPAlert(reading);
+                }
+            }
+        }
+
+        log.info("Bulk ingestion: {} rows received, {} accepted, {} rejected",
+                rows.size(), accepted.size(), rows.size() - accepted.size());
+        return new BulkIngestResult(rows.size(), accepted.size(), rows.size() - accepted.size(), results);
+    }
+
+    private void insertBatch(List<BloodPressureReading> readings) {
+        for (int from = 0; from < readings.size(); from += batchSize) {
+            List<BloodPressureReading> batch = readings.subList(from, Math.min(from + batchSize, readings.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            setInsertParameters(ps, batch.get(i));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return batch.size();
+                        }
+                    }, keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+            }
+        }
+    }
+
+    private static void setInsertParameters(PreparedStatement ps, BloodPressureReading reading) throws SQLException {
+        ps.setLong(1, reading.getPatient().getId());
+        ps.setInt(2, reading.getSystolicPressure());
+        ps.setInt(3, reading.getDiastolicPressure());
+        setNullableInt(ps, 4, reading.getHeartRate());
+        ps.setBigDecimal(5, reading.getWeightKg());
+        ps.setBigDecimal(6, reading.getSpo2Percentage());
+        ps.setString(7, reading.getNotes());
+        ps.setTimestamp(8, Timestamp.valueOf(reading.getReadingTime()));
+        ps.setString(9, reading.getMeasurementMethod());
+        ps.setString(10, reading.getArmUsed());
+        ps.setString(11, reading.getBodyPosition());
+        ps.setString(12, reading.getActivityBefore());
+        ps.setString(13, reading.getDeviceId());
+        ps.setString(14, reading.getDeviceModel());
+        ps.setTimestamp(15, Timestamp.valueOf(reading.getCreatedAt()));
+        if (reading.getRecordedBy() != null) {
+            ps.setLong(16, reading.getRecordedBy().getId());
+        } else {
+            ps.setNull(16, Types.BIGINT);
+        }
+        ps.setString(17, reading.getAlertLevel().name());
+    }
+
+    private static BloodPressureReading toReading(BulkReadingRow row, Patient patient, User recordedBy, LocalDateTime now) {
+        BloodPressureReading reading = new BloodPressureReading();
+        reading.setPatient(patient);
+        reading.setRecordedBy(recordedBy);
+        reading.setSystolicPressure(row.systolicPressure());
+        reading.setDiastolicPressure(row.diastolicPressure());
+        reading.setHeartRate(row.heartRate());
+        reading.setWeightKg(row.weightKg());
+        reading.setSpo2Percentage(row.spo2Percentage());
+        reading.setNotes(row.notes());
+        reading.setReadingTime(row.readingTime() != null ? row.readingTime() : now);
+        reading.setMeasurementMethod(row.measurementMethod());
+        reading.setArmUsed(row.armUsed());
+        reading.setBodyPosition(row.bodyPosition());
+        reading.setActivityBefore(row.activityBefore());
+        reading.setDeviceId(row.deviceId());
+        reading.setDeviceModel(row.deviceModel());
+        reading.setCreatedAt(now);
+        return reading;
+    }
+
+    private static BulkIngestResult.RowResult rejected(int index, List<String> errors) {
+        return new BulkIngestResult.RowResult(index, BulkIngestResult.Status.REJECTED, null, errors);
+    }
+
+    private static void setNullableInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+}
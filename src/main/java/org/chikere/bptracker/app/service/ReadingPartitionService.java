@@ -0,0 +1,140 @@
+package org.chikere.bptracker.app.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Service maintaining the monthly partitions of blood_pressure_readings on PostgreSQL deployments
+ * using the partitioned schema. Partitions are created ahead of time, readings that landed in the
+ * default partition are moved into monthly partitions, and partitions past the retention period are
+ * detached, leaving them as standalone archive tables.
+ */
+@Service
+@ConditionalOnProperty(name = "app.readings.partitioning.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ReadingPartitionService {
+
+    private static final String TABLE = "blood_pressure_readings";
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'" + TABLE + "_p'yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StatisticsService statisticsService;
+
+    @Value("${app.readings.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.readings.partitioning.retention-months:0}")
+    private int retentionMonths;
+
+    /**
+     * Create missing partitions and detach expired ones.
+     * Runs on startup and is scheduled using the cron expression defined in application.properties.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.readings.partitioning.schedule:0 30 2 * * *}")
+    public void maintainPartitions() {
+        createPartitions();
+        if (retentionMonths > 0) {
+            detachPartitionsBefore(YearMonth.now().minusMonths(retentionMonths));
+        }
+    }
+
+    /**
+     * Create the partitions for the current and upcoming months, and for every month
+     * with readings in the default partition
+     */
+    public void createPartitions() {
+        SortedSet<YearMonth> months = new TreeSet<>();
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            months.add(current.plusMonths(i));
+        }
+        months.addAll(jdbcTemplate.queryForList(
+                "SELECT DISTINCT to_char(reading_time, 'YYYY-MM') FROM " + DEFAULT_PARTITION, String.class)
+                .stream().map(YearMonth::parse).toList());
+        months.removeAll(getPartitions().keySet());
+
+        for (YearMonth month : months) {
+            try {
+                Integer moved = transactionTemplate.execute(status -> createPartition(month));
+                log.info("Created reading partition for {}, moved {} readings from the default partition", month, moved);
+            } catch (DataAccessException e) {
+                log.error("Error creating reading partition for {}: {}", month, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Detach the partitions of months before a given month. The detached tables keep their rows
+     * for archival; the hourly, daily and weekly rollups keep covering the detached months.
+     * @param oldestKept the oldest month to keep attached
+     */
+    public void detachPartitionsBefore(YearMonth oldestKept) {
+        int detached = 0;
+        for (var partition : getPartitions().headMap(oldestKept).entrySet()) {
+            try {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition.getValue());
+                log.info("Detached reading partition {} for archival", partition.getValue());
+                detached++;
+            } catch (DataAccessException e) {
+                log.error("Error detaching reading partition {}: {}", partition.getValue(), e.getMessage(), e);
+            }
+        }
+        if (detached > 0) {
+            statisticsService.reconcile();
+        }
+    }
+
+    /**
+     * Get the attached monthly partitions
+     * @return the partition table names by month, in month order
+     */
+    public SortedMap<YearMonth, String> getPartitions() {
+        SortedMap<YearMonth, String> partitions = new TreeMap<>();
+        jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ?", String.class, TABLE)
+                .stream()
+                .filter(name -> !name.equals(DEFAULT_PARTITION))
+                .forEach(name -> partitions.put(YearMonth.parse(name, PARTITION_NAME), name));
+        return partitions;
+    }
+
+    /**
+     * Create a month's partition as a standalone table, move that month's rows out of the default
+     * partition into it and attach it; attaching fails while the default partition holds rows for the month
+     */
+    private int createPartition(YearMonth month) {
+        String name = PARTITION_NAME.format(month);
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        int moved = jdbcTemplate.update(
+                "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE reading_time >= ?::timestamp AND reading_time < ?::timestamp RETURNING *) " +
+                "INSERT INTO " + name + " SELECT * FROM moved", from, to);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + name +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        return moved;
+    }
+}
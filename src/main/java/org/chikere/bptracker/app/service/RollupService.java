@@ -0,0 +1,217 @@
+package org.chikere.bptracker.app.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.chikere.bptracker.app.dto.ReadingPoint;
+import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.chikere.bptracker.app.model.BloodPressureRollup;
+import org.chikere.bptracker.app.model.Patient;
+import org.chikere.bptracker.app.repository.BloodPressureReadingRepository;
+import org.chikere.bptracker.app.repository.BloodPressureRollupRepository;
+import org.chikere.bptracker.app.repository.PatientRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service maintaining hourly, daily and weekly rollups of blood pressure readings per patient.
+ * Rollups are updated in the same transaction as the readings they summarize, with one atomic upsert
+ * per bucket, so concurrent readings in the same bucket neither lose updates nor race to create it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollupService {
+
+    private static final int BACKFILL_PAGE_SIZE = 500;
+
+    private final BloodPressureRollupRepository rollupRepository;
+    private final BloodPressureReadingRepository bpRepository;
+    private final PatientRepository patientRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private boolean postgres;
+
+    @PostConstruct
+    void detectDatabase() {
+        postgres = "PostgreSQL".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
+    /**
+     * Get a patient's rollups with buckets overlapping a time range
+     * @param patientId the patient ID
+     * @param resolution the bucket resolution
+     * @param startDate the start of the range
+     * @param endDate the end of the range
+     * @return a list of rollups ordered by bucket start
+     */
+    public List<BloodPressureRollup> getRollups(Long patientId, BloodPressureRollup.Resolution resolution,
+                                                LocalDateTime startDate, LocalDateTime endDate) {
+        return rollupRepository.findByPatientIdAndResolutionAndBucketStartBetweenOrderByBucketStart(
+                patientId, resolution, resolution.bucketStart(startDate), endDate);
+    }
+
+    /**
+     * Get all of a patient's rollups at a resolution
+     * @param patientId the patient ID
+     * @param resolution the bucket resolution
+     * @return a list of rollups ordered by bucket start
+     */
+    public List<BloodPressureRollup> getRollups(Long patientId, BloodPressureRollup.Resolution resolution) {
+        return rollupRepository.findByPatientIdAndResolutionOrderByBucketStart(patientId, resolution);
+    }
+
+    /**
+     * Fold a newly created reading into its buckets at every resolution
+     * @param patientId the patient ID
+     * @param reading the new reading
+     */
+    @Transactional
+    public void addReading(Long patientId, BloodPressureReading reading) {
+        for (BloodPressureRollup.Resolution resolution : BloodPressureRollup.Resolution.values()) {
+            BloodPressureRollup rollup = new BloodPressureRollup(patientId, resolution,
+                    resolution.bucketStart(reading.getReadingTime()));
+            rollup.add(reading.getSystolicPressure(), reading.getDiastolicPressure(), reading.getHeartRate());
+            upsert(rollup);
+        }
+    }
+
+    /**
+     * Fold a batch of newly created readings, possibly for many patients, into their buckets.
+     * Each affected bucket is upserted once, however many readings fall into it.
+     * @param readings the new readings, each with its patient set
+     */
+    @Transactional
+    public void addReadings(Collection<BloodPressureReading> readings) {
+        Map<BucketKey, List<BloodPressureReading>> byBucket = new LinkedHashMap<>();
+        for (BloodPressureReading reading : readings) {
+            for (BloodPressureRollup.Resolution resolution : BloodPressureRollup.Resolution.values()) {
+                BucketKey key = new BucketKey(reading.getPatient().getId(), resolution,
+                        resolution.bucketStart(reading.getReadingTime()));
+                byBucket.computeIfAbsent(key, k -> new ArrayList<>()).add(reading);
+            }
+        }
+
+        byBucket.forEach((key, bucketReadings) -> {
+            BloodPressureRollup rollup = new BloodPressureRollup(key.patientId(), key.resolution(), key.bucketStart());
+            for (BloodPressureReading reading : bucketReadings) {
+                rollup.add(reading.getSystolicPressure(), reading.getDiastolicPressure(), reading.getHeartRate());
+            }
+            upsert(rollup);
+        });
+    }
+
+    /**
+     * Recompute the buckets containing a point in time from the underlying readings.
+     * Used after a reading is updated or deleted, since min and max cannot be maintained by subtraction.
+     * @param patientId the patient ID
+     * @param readingTime the time of the changed reading
+     */
+    @Transactional
+    public void recomputeBuckets(Long patientId, LocalDateTime readingTime) {
+        for (BloodPressureRollup.Resolution resolution : BloodPressureRollup.Resolution.values()) {
+            LocalDateTime bucketStart = resolution.bucketStart(readingTime);
+            BloodPressureReadingRepository.ReadingAggregate aggregate = bpRepository.aggregateForPatient(
+                    patientId, bucketStart, resolution.nextBucketStart(bucketStart));
+            BloodPressureRollup rollup = findOrCreate(patientId, resolution, bucketStart);
+
+            if (aggregate.getReadingCount() == 0) {
+                if (rollup.getId() != null) {
+                    rollupRepository.delete(rollup);
+                }
+                continue;
+            }
+
+            rollup.setReadingCount(aggregate.getReadingCount());
+            rollup.setSystolicMin(aggregate.getSystolicMin());
+            rollup.setSystolicMax(aggregate.getSystolicMax());
+            rollup.setSystolicSum(aggregate.getSystolicSum());
+            rollup.setDiastolicMin(aggregate.getDiastolicMin());
+            rollup.setDiastolicMax(aggregate.getDiastolicMax());
+            rollup.setDiastolicSum(aggregate.getDiastolicSum());
+            rollup.setHeartRateCount(aggregate.getHeartRateCount());
+            rollup.setHeartRateMin(aggregate.getHeartRateMin());
+            rollup.setHeartRateMax(aggregate.getHeartRateMax());
+            rollup.setHeartRateSum(aggregate.getHeartRateSum() == null ? 0 : aggregate.getHeartRateSum());
+            rollupRepository.save(rollup);
+        }
+    }
+
+    /**
+     * Delete all rollups for a patient
+     * @param patientId the patient ID
+     */
+    @Transactional
+    public void deleteForPatient(Long patientId) {
+        rollupRepository.deleteByPatientId(patientId);
+    }
+
+    /**
+     * Build rollups for existing readings when the rollup table is empty,
+     * e.g. on the first start after upgrading a database that already holds readings
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() > 0 || bpRepository.count() == 0) {
+            return;
+        }
+
+        log.info("Backfilling blood pressure rollups from existing readings");
+        Page<Patient> page = patientRepository.findAll(PageRequest.of(0, BACKFILL_PAGE_SIZE));
+        while (true) {
+            page.forEach(patient -> backfillPatient(patient.getId()));
+            if (!page.hasNext()) {
+                break;
+            }
+            page = patientRepository.findAll(page.nextPageable());
+        }
+        log.info("Completed rollup backfill");
+    }
+
+    /**
+     * Build all rollups for a patient that has none yet
+     * @param patientId the patient ID
+     */
+    public void backfillPatient(Long patientId) {
+        Map<BloodPressureRollup.Resolution, Map<LocalDateTime, BloodPressureRollup>> buckets = new LinkedHashMap<>();
+        for (ReadingPoint point : bpRepository.findPointsByPatientId(patientId)) {
+            for (BloodPressureRollup.Resolution resolution : BloodPressureRollup.Resolution.values()) {
+                LocalDateTime bucketStart = resolution.bucketStart(point.readingTime());
+                buckets.computeIfAbsent(resolution, r -> new LinkedHashMap<>())
+                        .computeIfAbsent(bucketStart, start -> new BloodPressureRollup(patientId, resolution, start))
+                        .add(point.systolic(), point.diastolic(), point.heartRate());
+            }
+        }
+        buckets.values().forEach(rollups -> rollupRepository.saveAll(rollups.values()));
+    }
+
+    private void upsert(BloodPressureRollup rollup) {
+        if (postgres) {
+            rollupRepository.upsertPostgres(rollup);
+        } else {
+            rollupRepository.mergeH2(rollup);
+        }
+    }
+
+    private BloodPressureRollup findOrCreate(Long patientId, BloodPressureRollup.Resolution resolution, LocalDateTime bucketStart) {
+        return rollupRepository.findByPatientIdAndResolutionAndBucketStart(patientId, resolution, bucketStart)
+                .orElseGet(() -> new BloodPressureRollup(patientId, resolution, bucketStart));
+    }
+
+    private record BucketKey(Long patientId, BloodPressureRollup.Resolution resolution, LocalDateTime bucketStart) {
+    }
+}
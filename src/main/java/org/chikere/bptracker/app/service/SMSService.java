@@ -1,39 +1,165 @@
 package org.chikere.bptracker.app.service;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
 /**
- * Service for sending SMS notifications (mocked implementation)
+ * Service for sending SMS notifications through an outbound queue.
+ * Messages are coalesced per recipient within a time window, sent in batches per provider request
+ * and throttled by a token bucket, so alert storms cannot exceed the provider's rate limits
+ * or grow memory without bound. Callers can register a failure callback, which is invoked when a message
+ * could not be sent after all attempts, so undeliverable alerts are not lost silently.
+ * Message outcomes, queue depth, delivery latency and provider request times are exported as metrics.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class SMSService {
 
+    private final List<SmsProvider> providers;
+    private final MeterRegistry meterRegistry;
+
     @Value("${app.sms.enabled:true}")
     private boolean smsEnabled;
 
     @Value("${app.sms.provider:mock}")
     private String smsProvider;
 
+    @Value("${app.sms.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.sms.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.sms.rate-per-second:10}")
+    private double ratePerSecond;
+
+    @Value("${app.sms.burst:20}")
+    private int burst;
+
+    @Value("${app.sms.coalesce-window:PT10M}")
+    private Duration coalesceWindow;
+
+    @Value("${app.sms.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.sms.retry-backoff:PT2S}")
+    private Duration retryBackoff;
+
+    @Value("${app.sms.max-retry-backoff:PT30S}")
+    private Duration maxRetryBackoff;
+
+    private final Map<String, Pending> recentMessages = new ConcurrentHashMap<>();
+    private final LongAdder sentCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    private SmsProvider provider;
+    private TokenBucket rateLimiter;
+    private Timer deliveryTimer;
+    private BlockingQueue<Outbound> queue;
+    private Thread sender;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        provider = providers.stream()
+                .filter(candidate -> candidate.getName().equalsIgnoreCase(smsProvider))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("SMS provider not found with name: " + smsProvider));
+        rateLimiter = new TokenBucket(ratePerSecond, burst);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        registerMeters();
+        running = true;
+        sender = Thread.ofVirtual().name("sms-sender").start(this::runSender);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        sender.interrupt();
+        sender.join(TimeUnit.SECONDS.toMillis(5));
+        if (!queue.isEmpty()) {
+            log.warn("Discarding {} queued SMS messages on shutdown", queue.size());
+            List<Outbound> discarded = new ArrayList<>();
+            queue.drainTo(discarded);
+            fail(discarded, new SmsProvider.SmsDeliveryException("Discarded on shutdown"));
+        }
+    }
+
     /**
-     * Send an SMS message to a phone number
+     * Queue an SMS message for a phone number. A message identical to one already queued or sent
+     * to the same number within the coalescing window is dropped as a duplicate.
      * @param phoneNumber the recipient's phone number
      * @param message the message to send
-     * @return true if the message was sent successfully, false otherwise
+     * @return true if the message was queued or coalesced with a recent duplicate, false if SMS is disabled or the queue is full
      */
     public boolean sendSMS(String phoneNumber, String message) {
+        return sendSMS(phoneNumber, message, error -> {
+        });
+    }
+
+    /**
+     * Queue an SMS message for a phone number, with a callback for when it cannot be delivered.
+     * A message identical to one already queued or sent to the same number within the coalescing window
+     * is dropped as a duplicate, and shares the outcome of the message it was coalesced with.
+     * @param phoneNumber the recipient's phone number
+     * @param message the message to send
+     * @param onFailure called with the last provider error once all send attempts have failed;
+     *                  runs on the sender thread, so it must not block for long
+     * @return true if the message was queued or coalesced with a recent duplicate, false if SMS is disabled or the queue is full
+     */
+    public boolean sendSMS(String phoneNumber, String message, Consumer<Throwable> onFailure) {
         if (!smsEnabled) {
             log.info("SMS notifications are disabled");
             return false;
         }
 
-        // In a real implementation, this would integrate with an SMS gateway
-        // For now, we just log the message
-        log.info("MOCK SMS via {}: To: {}, Message: {}", smsProvider, phoneNumber, message);
-        
-        // Simulate successful sending
+        long now = System.nanoTime();
+        String key = phoneNumber + '\n' + message;
+        Pending created = new Pending(now + coalesceWindow.toNanos(), new CompletableFuture<>());
+        Pending pending = recentMessages.compute(key, (k, existing) ->
+                existing != null && existing.expiry() - now > 0 ? existing : created);
+        if (pending != created) {
+            coalescedCount.increment();
+            log.debug("Coalesced duplicate SMS to {}", phoneNumber);
+            onFailure(pending, onFailure);
+            return true;
+        }
+
+        if (!queue.offer(new Outbound(new SmsProvider.Message(phoneNumber, message), key, created, now))) {
+            recentMessages.remove(key, created);
+            // Duplicates coalesced with the rejected message in the meantime must not wait for it
+            created.delivery().completeExceptionally(new SmsProvider.SmsDeliveryException("SMS queue is full"));
+            droppedCount.increment();
+            log.warn("SMS queue is full, rejecting message to {}", phoneNumber);
+            return false;
+        }
+        onFailure(created, onFailure);
         return true;
     }
 
@@ -52,4 +178,174 @@ public class SMSService {
     public String getSmsProvider() {
         return smsProvider;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the number of messages waiting to be sent
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Get the number of messages sent successfully
+     * @return the sent message count
+     */
+    public long getSentCount() {
+        return sentCount.sum();
+    }
+
+    /**
+     * Get the number of messages abandoned after all send attempts failed
+     * @return the failed message count
+     */
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+
+    /**
+     * Get the number of duplicate messages coalesced instead of sent
+     * @return the coalesced message count
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * Get the number of messages rejected because the queue was full
+     * @return the dropped message count
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * Get the mean time from queueing a message to the provider accepting it
+     * @return the mean send latency in milliseconds, or 0 if nothing has been sent
+     */
+    public double getAverageSendLatencyMillis() {
+        long sent = sentCount.sum();
+        return sent == 0 ? 0 : totalLatencyNanos.sum() / 1_000_000d / sent;
+    }
+
+    /**
+     * Get the longest time from queueing a message to the provider accepting it
+     * @return the maximum send latency in milliseconds
+     */
+    public double getMaxSendLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000d;
+    }
+
+    private void registerMeters() {
+        deliveryTimer = Timer.builder("bptracker.sms.delivery")
+                .description("Time from queueing an SMS message to the provider accepting it")
+                .register(meterRegistry);
+        Gauge.builder("bptracker.sms.queue.size", queue, BlockingQueue::size)
+                .description("SMS messages waiting to be sent")
+                .register(meterRegistry);
+        Map.of("sent", sentCount, "failed", failedCount, "coalesced", coalescedCount, "dropped", droppedCount)
+                .forEach((outcome, count) -> FunctionCounter.builder("bptracker.sms.messages", count, LongAdder::sum)
+                        .description("SMS messages by outcome")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+    }
+
+    private void runSender() {
+        int maxBatch = Math.max(1, Math.min(batchSize, provider.getMaxBatchSize()));
+        List<Outbound> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                Outbound first = queue.poll(1, TimeUnit.SECONDS);
+                purgeExpired();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                rateLimiter.acquire(batch.size());
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<Outbound> batch) throws InterruptedException {
+        List<SmsProvider.Message> messages = batch.stream().map(Outbound::message).toList();
+        long backoffMillis = retryBackoff.toMillis();
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                provider.sendBatch(messages);
+                sample.stop(providerTimer("success"));
+                recordSent(batch);
+                return;
+            } catch (RuntimeException e) {
+                sample.stop(providerTimer("failure"));
+                if (attempt == maxAttempts) {
+                    log.error("Failed to send batch of {} SMS messages via {} after {} attempts: {}",
+                            batch.size(), provider.getName(), maxAttempts, e.getMessage());
+                    fail(batch, e);
+                    return;
+                }
+                log.warn("SMS batch attempt {} via {} failed: {}; retrying in {} ms",
+                        attempt, provider.getName(), e.getMessage(), backoffMillis);
+                Thread.sleep(backoffMillis);
+                backoffMillis = Math.min(backoffMillis * 2, maxRetryBackoff.toMillis());
+            }
+        }
+    }
+
+    private void recordSent(List<Outbound> batch) {
+        long now = System.nanoTime();
+        for (Outbound outbound : batch) {
+            long latency = now - outbound.queuedAt();
+            totalLatencyNanos.add(latency);
+            deliveryTimer.record(latency, TimeUnit.NANOSECONDS);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+        sentCount.add(batch.size());
+        batch.forEach(outbound -> outbound.pending().delivery().complete(null));
+    }
+
+    private static void onFailure(Pending pending, Consumer<Throwable> onFailure) {
+        pending.delivery().whenComplete((sent, error) -> {
+            if (error != null) {
+                onFailure.accept(error);
+            }
+        });
+    }
+
+    /**
+     * Give up on messages: forget them for coalescing, so a resend is queued rather than dropped as a duplicate,
+     * and notify the callers waiting on them
+     */
+    private void fail(List<Outbound> batch, Throwable error) {
+        failedCount.add(batch.size());
+        for (Outbound outbound : batch) {
+            recentMessages.remove(outbound.key(), outbound.pending());
+            outbound.pending().delivery().completeExceptionally(error);
+        }
+    }
+
+    private Timer providerTimer(String outcome) {
+        return meterRegistry.timer("bptracker.sms.provider.requests", "provider", provider.getName(), "outcome", outcome);
+    }
+
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        recentMessages.values().removeIf(pending -> pending.expiry() - now <= 0);
+    }
+
+    private record Outbound(SmsProvider.Message message, String key, Pending pending, long queuedAt) {
+    }
+
+    /**
+     * A message queued or sent within the coalescing window, with the outcome shared by its duplicates
+     */
+    private record Pending(long expiry, CompletableFuture<Void> delivery) {
+    }
+}
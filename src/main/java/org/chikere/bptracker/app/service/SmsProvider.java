@@ -0,0 +1,48 @@
+package org.chikere.bptracker.app.service;
+
+import java.util.List;
+
+/**
+ * Outbound SMS gateway. Implementations are selected by name with the {@code app.sms.provider} property.
+ */
+public interface SmsProvider {
+
+    /**
+     * Get the provider name used in configuration
+     * @return the provider name
+     */
+    String getName();
+
+    /**
+     * Get the largest number of messages the provider accepts in one request
+     * @return the maximum batch size
+     */
+    int getMaxBatchSize();
+
+    /**
+     * Send a batch of messages in a single provider request
+     * @param messages the messages to send, at most {@link #getMaxBatchSize()}
+     * @throws SmsDeliveryException if the provider rejects or fails the request
+     */
+    void sendBatch(List<Message> messages);
+
+    /**
+     * A single outbound text message
+     * @param phoneNumber the recipient's phone number
+     * @param text the message text
+     */
+    record Message(String phoneNumber, String text) {
+    }
+
+    /**
+     * Thrown when a provider request fails
+     */
+    class SmsDeliveryException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public SmsDeliveryException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.chikere.bptracker.app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deterministic statistical trend model. The most recent days of the window are the segment under test.
+ * In order of precedence it detects:
+ * <ul>
+ *     <li>a sustained shift of the recent readings above the patient's baseline, with a one-sided CUSUM per pressure</li>
+ *     <li>a gradual upward trend, from a least-squares slope over the window that is both large and significant</li>
+ *     <li>a morning surge, from the gap between morning and evening systolic averages</li>
+ * </ul>
+ * The CUSUM compares against the baseline set on the series, which the caller estimates from readings older than the
+ * recent segment. While that baseline rests on too few readings, e.g. while a patient's state is bootstrapped, the
+ * mean and standard deviation are estimated from the reference period of the window before the recent segment
+ * instead. Either way the readings being tested never pull the baseline towards themselves.
+ * All statistics are computed in single passes over the series' primitive arrays without allocating.
+ * Field defaults apply when the model is used outside Spring, e.g. in benchmarks and tests.
+ */
+@Component
+public class StatisticalTrendModel implements TrendModel {
+
+    private static final double SECONDS_PER_DAY = 86_400;
+    private static final int MORNING_START_HOUR = 6;
+    private static final int MORNING_END_HOUR = 10;
+    private static final int EVENING_START_HOUR = 18;
+
+    @Value("${app.ai.trend.min-readings:5}")
+    private int minReadings = 5;
+
+    @Value("${app.ai.trend.recent-days:7}")
+    private double recentDays = 7;
+
+    @Value("${app.ai.trend.cusum.min-reference-readings:14}")
+    private int minReferenceReadings = 14;
+
+    @Value("${app.ai.trend.cusum.min-std-dev:5.0}")
+    private double minStdDev = 5.0;
+
+    @Value("${app.ai.trend.cusum.slack:0.5}")
+    private double cusumSlack = 0.5;
+
+    @Value("${app.ai.trend.cusum.threshold:5.0}")
+    private double cusumThreshold = 5.0;
+
+    @Value("${app.ai.trend.slope.min-readings:10}")
+    private int minSlopeReadings = 10;
+
+    @Value("${app.ai.trend.slope.min-span-days:7}")
+    private double minSlopeSpanDays = 7;
+
+    @Value("${app.ai.trend.slope.threshold:1.0}")
+    private double slopeThreshold = 1.0;
+
+    @Value("${app.ai.trend.slope.min-t-statistic:3.0}")
+    private double minSlopeTStatistic = 3.0;
+
+    @Value("${app.ai.trend.morning-surge.threshold:20}")
+    private double morningSurgeThreshold = 20;
+
+    @Value("${app.ai.trend.morning-surge.min-systolic:135}")
+    private double morningMinSystolic = 135;
+
+    @Value("${app.ai.trend.morning-surge.min-readings:4}")
+    private int morningSurgeMinReadings = 4;
+
+    @Override
+    public String getName() {
+        return "statistical";
+    }
+
+    @Override
+    public String analyze(TrendSeries series) {
+        int n = series.size();
+        if (n < minReadings) {
+            return null;
+        }
+
+        int recentStart = recentStart(series);
+        boolean baselineKnown = series.getBaselineReadings() >= minReferenceReadings;
+        if ((baselineKnown || recentStart >= minReferenceReadings) && recentStart < n) {
+            if (cusumExceeded(series, recentStart, true)) {
+                return "Significant increase in systolic pressure compared to baseline";
+            }
+            if (cusumExceeded(series, recentStart, false)) {
+                return "Significant increase in diastolic pressure compared to baseline";
+            }
+        }
+
+        if (n >= minSlopeReadings && series.time(n - 1) - series.time(0) >= minSlopeSpanDays * SECONDS_PER_DAY) {
+            boolean systolicRising = significantRise(series, true);
+            boolean diastolicRising = significantRise(series, false);
+            if (systolicRising && diastolicRising) {
+                return "Gradual upward trend in both systolic and diastolic pressure";
+            }
+            if (systolicRising) {
+                return "Gradual upward trend in systolic pressure";
+            }
+            if (diastolicRising) {
+                return "Gradual upward trend in diastolic pressure";
+            }
+        }
+
+        if (morningSurge(series)) {
+            return "Elevated readings predominantly in the morning, suggesting morning hypertension";
+        }
+        return null;
+    }
+
+    /**
+     * Index of the first reading in the recent segment under test
+     */
+    private int recentStart(TrendSeries series) {
+        long cutoff = series.time(series.size() - 1) - (long) (recentDays * SECONDS_PER_DAY);
+        int index = series.size();
+        while (index > 0 && series.time(index - 1) > cutoff) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * One-sided upper CUSUM of the recent readings against the baseline, or against the reference period while the
+     * baseline rests on too few readings: S = max(0, S + x - mean - k), alarming when S > h, with k and h scaled by
+     * the standard deviation
+     */
+    private boolean cusumExceeded(TrendSeries series, int recentStart, boolean systolic) {
+        double mean;
+        double stdDev;
+        if (series.getBaselineReadings() >= minReferenceReadings) {
+            mean = systolic ? series.getSystolicBaseline() : series.getDiastolicBaseline();
+            stdDev = systolic ? series.getSystolicStdDev() : series.getDiastolicStdDev();
+        } else {
+            double sum = 0;
+            double sumSquares = 0;
+            for (int i = 0; i < recentStart; i++) {
+                double value = value(series, i, systolic);
+                sum += value;
+                sumSquares += value * value;
+            }
+            mean = sum / recentStart;
+            stdDev = Math.sqrt(Math.max(0, (sumSquares - sum * mean) / (recentStart - 1)));
+        }
+        double sigma = Math.max(minStdDev, stdDev);
+        double slack = cusumSlack * sigma;
+        double threshold = cusumThreshold * sigma;
+
+        double cusum = 0;
+        for (int i = recentStart; i < series.size(); i++) {
+            cusum = Math.max(0, cusum + value(series, i, systolic) - mean - slack);
+            if (cusum > threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check for a rising least-squares slope of pressure against time, in mmHg per day, that is at least the
+     * threshold and significant: its t-statistic (slope over its standard error) must reach the minimum.
+     * Times are taken relative to the first reading to keep the sums well conditioned.
+     */
+    private boolean significantRise(TrendSeries series, boolean systolic) {
+        int n = series.size();
+        long origin = series.time(0);
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        double sumYY = 0;
+        for (int i = 0; i < n; i++) {
+            double x = (series.time(i) - origin) / SECONDS_PER_DAY;
+            double y = value(series, i, systolic);
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+            sumYY += y * y;
+        }
+        double sxx = sumXX - sumX * sumX / n;
+        if (sxx <= 0) {
+            return false;
+        }
+        double slope = (sumXY - sumX * sumY / n) / sxx;
+        if (slope < slopeThreshold) {
+            return false;
+        }
+        double residualSquares = Math.max(0, sumYY - sumY * sumY / n - slope * slope * sxx);
+        double standardError = Math.sqrt(residualSquares / (n - 2) / sxx);
+        return standardError == 0 || slope / standardError >= minSlopeTStatistic;
+    }
+
+    private static double value(TrendSeries series, int index, boolean systolic) {
+        return systolic ? series.systolic(index) : series.diastolic(index);
+    }
+
+    private boolean morningSurge(TrendSeries series) {
+        double morningSum = 0;
+        int morningCount = 0;
+        double eveningSum = 0;
+        int eveningCount = 0;
+        for (int i = 0; i < series.size(); i++) {
+            int hour = (int) (Math.floorMod(series.time(i), (long) SECONDS_PER_DAY) / 3600);
+            if (hour >= MORNING_START_HOUR && hour < MORNING_END_HOUR) {
+                morningSum += series.systolic(i);
+                morningCount++;
+            } else if (hour >= EVENING_START_HOUR) {
+                eveningSum += series.systolic(i);
+                eveningCount++;
+            }
+        }
+        if (morningCount < morningSurgeMinReadings || eveningCount < morningSurgeMinReadings) {
+            return false;
+        }
+        double morningMean = morningSum / morningCount;
+        return morningMean >= morningMinSystolic && morningMean - eveningSum / eveningCount >= morningSurgeThreshold;
+    }
+}
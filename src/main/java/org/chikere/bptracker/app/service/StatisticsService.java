@@ -0,0 +1,205 @@
+package org.chikere.bptracker.app.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.chikere.bptracker.app.repository.BloodPressureReadingRepository;
+import org.chikere.bptracker.app.repository.PatientRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service keeping live aggregate counts of patients and blood pressure readings.
+ * Counts are updated incrementally when data changes and periodically reconciled against the database.
+ * The counts are exported as gauges, alongside counters of readings created per alert level.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatisticsService {
+
+    private final PatientRepository patientRepository;
+    private final BloodPressureReadingRepository bpRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong totalPatients = new AtomicLong();
+    private final AtomicLong totalReadings = new AtomicLong();
+    private final Map<BloodPressureReading.AlertLevel, AtomicLong> readingsByAlertLevel = createAlertLevelCounters();
+    private final Map<BloodPressureReading.AlertLevel, Counter> createdByAlertLevel = new EnumMap<>(BloodPressureReading.AlertLevel.class);
+
+    @PostConstruct
+    void registerMeters() {
+        Gauge.builder("bptracker.patients", totalPatients, AtomicLong::get)
+                .description("Number of patients")
+                .register(meterRegistry);
+        readingsByAlertLevel.forEach((level, count) -> {
+            Gauge.builder("bptracker.readings", count, AtomicLong::get)
+                    .description("Number of stored blood pressure readings")
+                    .tag("alert.level", level.name())
+                    .register(meterRegistry);
+            createdByAlertLevel.put(level, Counter.builder("bptracker.readings.created")
+                    .description("Blood pressure readings recorded or ingested")
+                    .tag("alert.level", level.name())
+                    .register(meterRegistry));
+        });
+    }
+
+    /**
+     * Get the total number of patients
+     * @return the total number of patients
+     */
+    public long getTotalPatients() {
+        return totalPatients.get();
+    }
+
+    /**
+     * Get the total number of blood pressure readings
+     * @return the total number of readings
+     */
+    public long getTotalReadings() {
+        return totalReadings.get();
+    }
+
+    /**
+     * Get the number of readings with the given alert level
+     * @param alertLevel the alert level
+     * @return the number of readings with the alert level
+     */
+    public long getReadingCount(BloodPressureReading.AlertLevel alertLevel) {
+        return readingsByAlertLevel.get(alertLevel).get();
+    }
+
+    /**
+     * Record that a patient was created, once the current transaction commits
+     */
+    public void recordPatientCreated() {
+        afterCommit(totalPatients::incrementAndGet);
+    }
+
+    /**
+     * Record that a patient and all of their readings are about to be deleted.
+     * Must be called before the delete so the patient's readings can still be counted.
+     * @param patientId the patient ID
+     */
+    public void recordPatientDeleted(Long patientId) {
+        List<BloodPressureReadingRepository.AlertLevelCount> counts = bpRepository.countByAlertLevelForPatient(patientId);
+        afterCommit(() -> {
+            totalPatients.decrementAndGet();
+            for (BloodPressureReadingRepository.AlertLevelCount count : counts) {
+                totalReadings.addAndGet(-count.getTotal());
+                if (count.getAlertLevel() != null) {
+                    readingsByAlertLevel.get(count.getAlertLevel()).addAndGet(-count.getTotal());
+                }
+            }
+        });
+    }
+
+    /**
+     * Record that a reading was created, once the current transaction commits
+     * @param alertLevel the alert level of the new reading
+     */
+    public void recordReadingCreated(BloodPressureReading.AlertLevel alertLevel) {
+        afterCommit(() -> {
+            totalReadings.incrementAndGet();
+            adjust(alertLevel, 1);
+            if (alertLevel != null) {
+                createdByAlertLevel.get(alertLevel).increment();
+            }
+        });
+    }
+
+    /**
+     * Record that a reading's alert level changed, once the current transaction commits
+     * @param previousLevel the alert level before the update
+     * @param newLevel the alert level after the update
+     */
+    public void recordReadingUpdated(BloodPressureReading.AlertLevel previousLevel, BloodPressureReading.AlertLevel newLevel) {
+        if (previousLevel == newLevel) {
+            return;
+        }
+        afterCommit(() -> {
+            adjust(previousLevel, -1);
+            adjust(newLevel, 1);
+        });
+    }
+
+    /**
+     * Record that a reading was deleted, once the current transaction commits
+     * @param alertLevel the alert level of the deleted reading
+     */
+    public void recordReadingDeleted(BloodPressureReading.AlertLevel alertLevel) {
+        afterCommit(() -> {
+            totalReadings.decrementAndGet();
+            adjust(alertLevel, -1);
+        });
+    }
+
+    /**
+     * Reconcile the live counters against COUNT(*) queries.
+     * Runs once at startup and then on the schedule defined in application.properties.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.stats.reconcile-interval:PT5M}", initialDelayString = "${app.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        long patients = patientRepository.count();
+        long readings = bpRepository.count();
+
+        Map<BloodPressureReading.AlertLevel, Long> levelCounts = new EnumMap<>(BloodPressureReading.AlertLevel.class);
+        for (BloodPressureReadingRepository.AlertLevelCount count : bpRepository.countByAlertLevel()) {
+            if (count.getAlertLevel() != null) {
+                levelCounts.put(count.getAlertLevel(), count.getTotal());
+            }
+        }
+
+        long previousPatients = totalPatients.getAndSet(patients);
+        long previousReadings = totalReadings.getAndSet(readings);
+        if (previousPatients != patients || previousReadings != readings) {
+            log.debug("Reconciled statistics: {} patients, {} readings", patients, readings);
+        }
+        readingsByAlertLevel.forEach((level, counter) -> counter.set(levelCounts.getOrDefault(level, 0L)));
+    }
+
+    private void adjust(BloodPressureReading.AlertLevel alertLevel, long delta) {
+        if (alertLevel != null) {
+            readingsByAlertLevel.get(alertLevel).addAndGet(delta);
+        }
+    }
+
+    /**
+     * Run an action after the current transaction commits, or immediately if there is no transaction
+     * @param action the action to run
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Map<BloodPressureReading.AlertLevel, AtomicLong> createAlertLevelCounters() {
+        Map<BloodPressureReading.AlertLevel, AtomicLong> counters = new EnumMap<>(BloodPressureReading.AlertLevel.class);
+        for (BloodPressureReading.AlertLevel level : BloodPressureReading.AlertLevel.values()) {
+            counters.put(level, new AtomicLong());
+        }
+        return counters;
+    }
+}
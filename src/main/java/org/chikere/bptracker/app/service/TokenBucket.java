@@ -0,0 +1,77 @@
+package org.chikere.bptracker.app.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limiter. Tokens refill continuously at a fixed rate up to the bucket capacity,
+ * which bounds both the sustained rate and the size of a burst.
+ */
+class TokenBucket {
+
+    private final double refillPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Create a full token bucket
+     * @param ratePerSecond the sustained number of tokens per second
+     * @param capacity the maximum number of tokens, i.e. the largest burst
+     */
+    TokenBucket(double ratePerSecond, int capacity) {
+        this(ratePerSecond, capacity, System::nanoTime);
+    }
+
+    /**
+     * Create a full token bucket refilled by the given clock
+     * @param ratePerSecond the sustained number of tokens per second
+     * @param capacity the maximum number of tokens, i.e. the largest burst
+     * @param nanoClock the source of {@link System#nanoTime()}-style timestamps
+     */
+    TokenBucket(double ratePerSecond, int capacity, LongSupplier nanoClock) {
+        if (ratePerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Token bucket rate and capacity must be positive");
+        }
+        this.refillPerNano = ratePerSecond / 1_000_000_000d;
+        this.capacity = capacity;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * Take tokens, waiting until enough are available. Requests larger than the capacity
+     * are taken in capacity-sized chunks.
+     * @param permits the number of tokens to take
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void acquire(int permits) throws InterruptedException {
+        int remaining = permits;
+        while (remaining > 0) {
+            int chunk = (int) Math.min(remaining, capacity);
+            long waitNanos;
+            while ((waitNanos = tryAcquire(chunk)) > 0) {
+                Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+            }
+            remaining -= chunk;
+        }
+    }
+
+    /**
+     * Take tokens if available
+     * @param permits the number of tokens to take
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until enough tokens will be available
+     */
+    synchronized long tryAcquire(int permits) {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+        if (tokens >= permits) {
+            tokens -= permits;
+            return 0;
+        }
+        return (long) Math.ceil((permits - tokens) / refillPerNano);
+    }
+}
@@ -0,0 +1,21 @@
+package org.chikere.bptracker.app.service;
+
+/**
+ * Model detecting abnormal blood pressure trends in a patient's recent readings.
+ * Implementations are selected by name with the {@code app.ai.monitoring.model} property.
+ */
+public interface TrendModel {
+
+    /**
+     * Get the model name used in configuration
+     * @return the model name
+     */
+    String getName();
+
+    /**
+     * Analyze a patient's readings
+     * @param series the readings over the analysis window, in time order, with the patient's baseline
+     * @return a description of the abnormal trend if detected, or null if no abnormal trend detected
+     */
+    String analyze(TrendSeries series);
+}
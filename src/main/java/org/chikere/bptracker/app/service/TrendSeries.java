@@ -0,0 +1,150 @@
+package org.chikere.bptracker.app.service;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * A patient's readings over an analysis window, held in primitive arrays for trend models.
+ * Times are wall-clock epoch seconds, so the hour of day of a reading is its local hour.
+ */
+public final class TrendSeries {
+
+    private long[] times;
+    private int[] systolic;
+    private int[] diastolic;
+    private int size;
+
+    @Getter
+    private double systolicBaseline;
+    @Getter
+    private double diastolicBaseline;
+    @Getter
+    private double systolicStdDev;
+    @Getter
+    private double diastolicStdDev;
+    @Getter
+    private long baselineReadings;
+
+    /**
+     * Create an empty series
+     * @param capacity the initial capacity
+     */
+    public TrendSeries(int capacity) {
+        int initial = Math.max(capacity, 8);
+        times = new long[initial];
+        systolic = new int[initial];
+        diastolic = new int[initial];
+    }
+
+    /**
+     * Append a reading
+     * @param readingTime the time of the reading
+     * @param systolicPressure the systolic pressure
+     * @param diastolicPressure the diastolic pressure
+     */
+    public void add(LocalDateTime readingTime, int systolicPressure, int diastolicPressure) {
+        add(readingTime.toEpochSecond(ZoneOffset.UTC), systolicPressure, diastolicPressure);
+    }
+
+    /**
+     * Append a reading
+     * @param epochSecond the wall-clock time of the reading in epoch seconds
+     * @param systolicPressure the systolic pressure
+     * @param diastolicPressure the diastolic pressure
+     */
+    public void add(long epochSecond, int systolicPressure, int diastolicPressure) {
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            systolic = Arrays.copyOf(systolic, capacity);
+            diastolic = Arrays.copyOf(diastolic, capacity);
+        }
+        times[size] = epochSecond;
+        systolic[size] = systolicPressure;
+        diastolic[size] = diastolicPressure;
+        size++;
+    }
+
+    /**
+     * Set the patient's baseline levels the readings are compared against
+     * @param systolicBaseline the baseline systolic pressure
+     * @param diastolicBaseline the baseline diastolic pressure
+     * @param systolicStdDev the typical systolic deviation
+     * @param diastolicStdDev the typical diastolic deviation
+     * @param baselineReadings the number of readings the baseline was estimated from
+     */
+    public void setBaseline(double systolicBaseline, double diastolicBaseline, double systolicStdDev, double diastolicStdDev,
+                            long baselineReadings) {
+        this.systolicBaseline = systolicBaseline;
+        this.diastolicBaseline = diastolicBaseline;
+        this.systolicStdDev = systolicStdDev;
+        this.diastolicStdDev = diastolicStdDev;
+        this.baselineReadings = baselineReadings;
+    }
+
+    /**
+     * Sort the readings by time. Readings usually arrive in or near time order, so an insertion sort is used.
+     */
+    public void sortByTime() {
+        for (int i = 1; i < size; i++) {
+            long time = times[i];
+            int sys = systolic[i];
+            int dia = diastolic[i];
+            int j = i - 1;
+            while (j >= 0 && times[j] > time) {
+                times[j + 1] = times[j];
+                systolic[j + 1] = systolic[j];
+                diastolic[j + 1] = diastolic[j];
+                j--;
+            }
+            times[j + 1] = time;
+            systolic[j + 1] = sys;
+            diastolic[j + 1] = dia;
+        }
+    }
+
+    /**
+     * Remove all readings, keeping the allocated arrays
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Get the number of readings
+     * @return the number of readings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the time of a reading
+     * @param index the reading index
+     * @return the wall-clock time in epoch seconds
+     */
+    public long time(int index) {
+        return times[index];
+    }
+
+    /**
+     * Get the systolic pressure of a reading
+     * @param index the reading index
+     * @return the systolic pressure
+     */
+    public int systolic(int index) {
+        return systolic[index];
+    }
+
+    /**
+     * Get the diastolic pressure of a reading
+     * @param index the reading index
+     * @return the diastolic pressure
+     */
+    public int diastolic(int index) {
+        return diastolic[index];
+    }
+}
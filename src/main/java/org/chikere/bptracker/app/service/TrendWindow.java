@@ -0,0 +1,187 @@
+package org.chikere.bptracker.app.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A patient's readings over the analysis window as kept in their trend state, in time order.
+ * Each reading is stored as its ID, wall-clock epoch second and pressures, and the window is packed into a byte array
+ * of fixed-size records for storage, so the sweep can fold new readings in without reading the window back from the
+ * readings table.
+ */
+public final class TrendWindow {
+
+    /**
+     * The most readings kept; the oldest are dropped beyond this
+     */
+    public static final int MAX_READINGS = 4096;
+
+    private static final int RECORD_BYTES = 2 * Long.BYTES + 2 * Short.BYTES;
+
+    private long[] ids;
+    private long[] times;
+    private int[] systolic;
+    private int[] diastolic;
+    private int size;
+
+    /**
+     * Create an empty window
+     * @param capacity the initial capacity
+     */
+    public TrendWindow(int capacity) {
+        int initial = Math.max(capacity, 8);
+        ids = new long[initial];
+        times = new long[initial];
+        systolic = new int[initial];
+        diastolic = new int[initial];
+    }
+
+    /**
+     * Unpack a window stored with {@link #pack()}
+     * @param packed the packed readings, or null for an empty window
+     * @return the window
+     */
+    public static TrendWindow unpack(byte[] packed) {
+        int count = packed == null ? 0 : packed.length / RECORD_BYTES;
+        TrendWindow window = new TrendWindow(count + 8);
+        ByteBuffer buffer = count == 0 ? null : ByteBuffer.wrap(packed);
+        for (int i = 0; i < count; i++) {
+            window.ids[i] = buffer.getLong();
+            window.times[i] = buffer.getLong();
+            window.systolic[i] = buffer.getShort();
+            window.diastolic[i] = buffer.getShort();
+        }
+        window.size = count;
+        return window;
+    }
+
+    /**
+     * Pack the readings for storage
+     * @return the packed readings
+     */
+    public byte[] pack() {
+        ByteBuffer buffer = ByteBuffer.allocate(size * RECORD_BYTES);
+        for (int i = 0; i < size; i++) {
+            buffer.putLong(ids[i]);
+            buffer.putLong(times[i]);
+            buffer.putShort((short) systolic[i]);
+            buffer.putShort((short) diastolic[i]);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Check whether a reading is in the window
+     * @param readingId the reading ID
+     * @return true if the reading is in the window
+     */
+    public boolean contains(long readingId) {
+        for (int i = size - 1; i >= 0; i--) {
+            if (ids[i] == readingId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Insert a reading in time order. Readings usually arrive in time order, so the position is searched from the end.
+     * @param readingId the reading ID
+     * @param epochSecond the wall-clock time of the reading in epoch seconds
+     * @param systolicPressure the systolic pressure
+     * @param diastolicPressure the diastolic pressure
+     */
+    public void insert(long readingId, long epochSecond, int systolicPressure, int diastolicPressure) {
+        if (size == times.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            times = Arrays.copyOf(times, capacity);
+            systolic = Arrays.copyOf(systolic, capacity);
+            diastolic = Arrays.copyOf(diastolic, capacity);
+        }
+        int index = size;
+        while (index > 0 && (times[index - 1] > epochSecond || times[index - 1] == epochSecond && ids[index - 1] > readingId)) {
+            index--;
+        }
+        int moved = size - index;
+        System.arraycopy(ids, index, ids, index + 1, moved);
+        System.arraycopy(times, index, times, index + 1, moved);
+        System.arraycopy(systolic, index, systolic, index + 1, moved);
+        System.arraycopy(diastolic, index, diastolic, index + 1, moved);
+        ids[index] = readingId;
+        times[index] = epochSecond;
+        systolic[index] = systolicPressure;
+        diastolic[index] = diastolicPressure;
+        size++;
+    }
+
+    /**
+     * Drop the oldest readings
+     * @param count the number of readings to drop
+     */
+    public void removeFirst(int count) {
+        int removed = Math.min(count, size);
+        int kept = size - removed;
+        System.arraycopy(ids, removed, ids, 0, kept);
+        System.arraycopy(times, removed, times, 0, kept);
+        System.arraycopy(systolic, removed, systolic, 0, kept);
+        System.arraycopy(diastolic, removed, diastolic, 0, kept);
+        size = kept;
+    }
+
+    /**
+     * Copy the readings into a series for a trend model
+     * @return a series of the readings, without a baseline
+     */
+    public TrendSeries toSeries() {
+        TrendSeries series = new TrendSeries(size);
+        for (int i = 0; i < size; i++) {
+            series.add(times[i], systolic[i], diastolic[i]);
+        }
+        return series;
+    }
+
+    /**
+     * Get the number of readings
+     * @return the number of readings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the ID of a reading
+     * @param index the reading index
+     * @return the reading ID
+     */
+    public long id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * Get the time of a reading
+     * @param index the reading index
+     * @return the wall-clock time in epoch seconds
+     */
+    public long time(int index) {
+        return times[index];
+    }
+
+    /**
+     * Get the systolic pressure of a reading
+     * @param index the reading index
+     * @return the systolic pressure
+     */
+    public int systolic(int index) {
+        return systolic[index];
+    }
+
+    /**
+     * Get the diastolic pressure of a reading
+     * @param index the reading index
+     * @return the diastolic pressure
+     */
+    public int diastolic(int index) {
+        return diastolic[index];
+    }
+}
@@ -0,0 +1,33 @@
+-- One-off migration of an existing PostgreSQL database from the plain blood_pressure_readings
+-- table to the partitioned layout of schema.sql. Take a backup first, stop the application,
+-- then run with: psql -v ON_ERROR_STOP=1 -f migrate.sql
+--
+-- All rows are copied into the default partition. On the next start in the "partitioned"
+-- profile ReadingPartitionService moves them into monthly partitions, one month per transaction.
+
+BEGIN;
+
+ALTER TABLE blood_pressure_readings RENAME TO blood_pressure_readings_unpartitioned;
+
+-- Index names are unique per schema, so free them for the partitioned indexes
+DROP INDEX IF EXISTS idx_bp_readings_alert_level_time;
+DROP INDEX IF EXISTS idx_bp_readings_patient_time;
+DROP INDEX IF EXISTS idx_bp_readings_patient_alert_level;
+
+\ir schema.sql
+
+INSERT INTO blood_pressure_readings (id, patient_id, systolic, diastolic, heart_rate, weight_kg, spo2_percentage,
+                                     notes, reading_time, measurement_method, arm_used, body_position,
+                                     activity_before, device_id, device_model, created_at, recorded_by, alert_level)
+SELECT id, patient_id, systolic, diastolic, heart_rate, weight_kg, spo2_percentage,
+       notes, reading_time, measurement_method, arm_used, body_position,
+       activity_before, device_id, device_model, created_at, recorded_by, alert_level
+FROM blood_pressure_readings_unpartitioned;
+
+SELECT setval('bp_readings_id_seq', COALESCE((SELECT MAX(id) FROM blood_pressure_readings), 0) + 1, false);
+
+DROP TABLE blood_pressure_readings_unpartitioned;
+
+COMMIT;
+
+ANALYZE blood_pressure_readings;
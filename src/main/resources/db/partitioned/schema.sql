@@ -0,0 +1,45 @@
+-- PostgreSQL schema for blood_pressure_readings range-partitioned by month on reading_time.
+-- Runs after Hibernate in the "partitioned" profile, which leaves this table to this script
+-- (PartitionedSchemaFilterProvider). Columns, indexes and foreign keys must be kept in step
+-- with the BloodPressureReading entity.
+-- Monthly partitions are created and detached by ReadingPartitionService.
+
+CREATE SEQUENCE IF NOT EXISTS bp_readings_id_seq;
+
+CREATE TABLE IF NOT EXISTS blood_pressure_readings (
+    id                 bigint        NOT NULL DEFAULT nextval('bp_readings_id_seq'),
+    patient_id         bigint        NOT NULL REFERENCES patients (id),
+    systolic           integer       NOT NULL CHECK (systolic BETWEEN 60 AND 250),
+    diastolic          integer       NOT NULL CHECK (diastolic BETWEEN 40 AND 150),
+    heart_rate         integer       CHECK (heart_rate BETWEEN 40 AND 200),
+    weight_kg          numeric(5, 2),
+    spo2_percentage    numeric(4, 1),
+    notes              varchar(1000),
+    reading_time       timestamp(6)  NOT NULL,
+    measurement_method varchar(50),
+    arm_used           varchar(10),
+    body_position      varchar(20),
+    activity_before    varchar(50),
+    device_id          varchar(50),
+    device_model       varchar(100),
+    created_at         timestamp(6),
+    recorded_by        bigint        REFERENCES users (id),
+    alert_level        varchar(255)  CHECK (alert_level IN ('NORMAL', 'ELEVATED', 'HIGH', 'CRITICAL')),
+    -- The partition key must be part of every unique constraint
+    PRIMARY KEY (id, reading_time)
+) PARTITION BY RANGE (reading_time);
+
+ALTER SEQUENCE bp_readings_id_seq OWNED BY blood_pressure_readings.id;
+
+-- Catches readings outside the monthly partitions, e.g. imported history;
+-- ReadingPartitionService moves them into monthly partitions
+CREATE TABLE IF NOT EXISTS blood_pressure_readings_default
+    PARTITION OF blood_pressure_readings DEFAULT;
+
+-- Partitioned indexes, created on every partition
+CREATE INDEX IF NOT EXISTS idx_bp_readings_alert_level_time
+    ON blood_pressure_readings (alert_level, reading_time);
+CREATE INDEX IF NOT EXISTS idx_bp_readings_patient_time
+    ON blood_pressure_readings (patient_id, reading_time DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bp_readings_patient_alert_level
+    ON blood_pressure_readings (patient_id, alert_level);
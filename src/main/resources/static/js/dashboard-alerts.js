@@ -0,0 +1,64 @@
+// Live alerts on the dashboard, pushed by the server over Server-Sent Events instead of reloading the page
+document.addEventListener('DOMContentLoaded', function () {
+    const panel = document.getElementById('live-alerts');
+    if (!panel || !window.EventSource) {
+        return;
+    }
+    const list = panel.querySelector('ul');
+    const maxItems = 20;
+    let disconnected = false;
+
+    function show(alert) {
+        const item = document.createElement('li');
+        item.className = 'list-group-item d-flex justify-content-between align-items-center';
+        if (alert.alertLevel === 'CRITICAL') {
+            item.classList.add('list-group-item-danger');
+        } else if (alert.type === 'TREND') {
+            item.classList.add('list-group-item-info');
+        }
+
+        const text = document.createElement('span');
+        text.textContent = alert.message;
+        const time = document.createElement('small');
+        time.className = 'text-muted ms-2';
+        time.textContent = new Date(alert.time).toLocaleTimeString();
+        text.appendChild(time);
+        item.appendChild(text);
+
+        const link = document.createElement('a');
+        link.className = 'btn btn-outline-dark btn-sm';
+        if (alert.readingId) {
+            link.href = panel.dataset.readingUrl + alert.readingId;
+            link.textContent = 'View Reading';
+        } else {
+            link.href = panel.dataset.patientUrl + alert.patientId;
+            link.textContent = 'View Patient';
+        }
+        item.appendChild(link);
+
+        list.prepend(item);
+        while (list.children.length > maxItems) {
+            list.lastElementChild.remove();
+        }
+        panel.classList.remove('d-none');
+    }
+
+    const source = new EventSource(panel.dataset.streamUrl);
+    source.addEventListener('alert', function (event) {
+        show(JSON.parse(event.data));
+    });
+    source.addEventListener('missed', function () {
+        // The server dropped alerts this dashboard could not keep up with; reload to show them from the database
+        source.close();
+        window.location.reload();
+    });
+    source.addEventListener('error', function () {
+        disconnected = true;
+    });
+    source.addEventListener('open', function () {
+        // Alerts raised while disconnected were missed; reload once to pick them up from the database
+        if (disconnected) {
+            window.location.reload();
+        }
+    });
+});
@@ -0,0 +1,66 @@
+// Patient suggestions under the header search box, served from the in-memory typeahead index
+document.addEventListener('DOMContentLoaded', function () {
+    const input = document.querySelector('input[data-typeahead-url]');
+    if (!input) {
+        return;
+    }
+    const menu = input.form.querySelector('.dropdown-menu');
+    let timer = null;
+    let controller = null;
+
+    function hide() {
+        menu.classList.remove('show');
+        menu.replaceChildren();
+    }
+
+    function show(suggestions) {
+        menu.replaceChildren();
+        suggestions.forEach(function (patient) {
+            const link = document.createElement('a');
+            link.className = 'dropdown-item';
+            link.href = input.dataset.recordUrl + patient.id + '/record';
+            link.textContent = patient.firstName + ' ' + patient.lastName;
+            if (patient.phoneNumber) {
+                const phone = document.createElement('small');
+                phone.className = 'text-muted ms-2';
+                phone.textContent = patient.phoneNumber;
+                link.appendChild(phone);
+            }
+            const item = document.createElement('li');
+            item.appendChild(link);
+            menu.appendChild(item);
+        });
+        menu.classList.toggle('show', suggestions.length > 0);
+    }
+
+    input.addEventListener('input', function () {
+        clearTimeout(timer);
+        const query = input.value.trim();
+        if (query.length < 2) {
+            hide();
+            return;
+        }
+        timer = setTimeout(function () {
+            if (controller) {
+                controller.abort();
+            }
+            controller = new AbortController();
+            fetch(input.dataset.typeaheadUrl + '?q=' + encodeURIComponent(query), {signal: controller.signal})
+                .then(function (response) { return response.ok ? response.json() : []; })
+                .then(show)
+                .catch(function () {});
+        }, 100);
+    });
+
+    input.addEventListener('keydown', function (event) {
+        if (event.key === 'Escape') {
+            hide();
+        }
+    });
+
+    document.addEventListener('click', function (event) {
+        if (!input.form.contains(event.target)) {
+            hide();
+        }
+    });
+});
@@ -0,0 +1,51 @@
+package org.chikere.bptracker.app;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that only the health endpoint is public and that metrics require the scrape account
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:actuatorsecurity",
+        "app.metrics.scrape.username=scraper",
+        "app.metrics.scrape.password=scrape-secret"
+})
+@AutoConfigureMockMvc
+// Metrics export, and with it the Prometheus endpoint, is off in tests unless asked for
+@AutoConfigureObservability
+class ActuatorSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void healthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void prometheusRejectsAnonymousCallers() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void prometheusRejectsApplicationUsers() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("nurse", "password")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void prometheusAcceptsScrapeAccount() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("scraper", "scrape-secret")))
+                .andExpect(status().isOk());
+    }
+}
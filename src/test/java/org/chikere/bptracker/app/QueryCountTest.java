@@ -0,0 +1,136 @@
+package org.chikere.bptracker.app;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.chikere.bptracker.app.config.LargeDatasetSeeder;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each main page issues, against a few thousand patients and their readings
+ * seeded by {@link LargeDatasetSeeder}.
+ * A page that starts loading associations one row at a time (N+1) changes its count and fails here.
+ * The second-level cache is cleared before each request, so counts are those of a cold cache.
+ * When a change legitimately adds or removes a query, update the expected count; the failure message lists the SQL.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:querycount",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.chikere.bptracker.app.SqlStatementCounter",
+        "app.seed.patients=2000",
+        "app.seed.readings-per-patient=25",
+        "app.seed.days=30"
+})
+@ActiveProfiles("seed")
+@AutoConfigureMockMvc
+@WithUserDetails("nurse")
+class QueryCountTest {
+
+    private static long patientId;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void findPatient(@Autowired JdbcTemplate jdbcTemplate) {
+        List<Long> patientIds = jdbcTemplate.queryForList("SELECT id FROM patients WHERE email LIKE ? ORDER BY id",
+                Long.class, "%" + LargeDatasetSeeder.EMAIL_DOMAIN);
+        patientId = patientIds.get(patientIds.size() / 2);
+    }
+
+    @BeforeEach
+    void clearSecondLevelCache() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    void dashboard() throws Exception {
+        // Recent patients and recent critical readings; totals come from the live counters
+        assertStatementCount(2, get("/dashboard"), status().isOk());
+    }
+
+    @Test
+    void patientView() throws Exception {
+        // Patient, recent readings and reading count
+        assertStatementCount(3, get("/patients/" + patientId), status().isOk());
+    }
+
+    @Test
+    void patientList() throws Exception {
+        assertStatementCount(1, get("/patients"), status().isOk());
+    }
+
+    @Test
+    void readingList() throws Exception {
+        // Patient and one page of reading list items
+        assertStatementCount(2, get("/bp-readings/patient/" + patientId), status().isOk());
+    }
+
+    @Test
+    void readingView() throws Exception {
+        long readingId = readingIdOf(patientId);
+        // Reading with its patient and recorder in one join
+        assertStatementCount(1, get("/bp-readings/" + readingId), status().isOk());
+    }
+
+    @Test
+    void chartFromReadings() throws Exception {
+        assertStatementCount(2, get("/bp-readings/patient/" + patientId + "/chart?period=day"), status().isOk());
+    }
+
+    @Test
+    void chartFromRollups() throws Exception {
+        assertStatementCount(2, get("/bp-readings/patient/" + patientId + "/chart?period=month"), status().isOk());
+    }
+
+    @Test
+    void recordReading() throws Exception {
+        // Patient, reading insert, and an upsert of the hour, day and week rollups
+        assertStatementCount(5, post("/bp-readings/patient/" + patientId + "/record")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .content("systolicPressure=128&diastolicPressure=82&heartRate=72&notes=query+count")
+                .with(csrf()), status().is3xxRedirection());
+    }
+
+    private long readingIdOf(long patientId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT MAX(id) FROM blood_pressure_readings WHERE patient_id = ?", Long.class, patientId);
+    }
+
+    private void assertStatementCount(int expected, RequestBuilder request, ResultMatcher status) throws Exception {
+        SqlStatementCounter.start();
+        List<String> statements;
+        try {
+            mockMvc.perform(request).andExpect(status);
+        } finally {
+            statements = SqlStatementCounter.stop();
+        }
+        assertEquals(expected, statements.size(), () -> "Unexpected number of SQL statements:\n" +
+                String.join("\n", statements));
+    }
+}
@@ -0,0 +1,267 @@
+package org.chikere.bptracker.app;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Replays a mix of dashboard, list, chart and record traffic against a seeded dataset
+ * and prints request counts, errors and latency percentiles per endpoint.
+ * By default starts the application with the "seed" profile on a random port; set -Dload.base-url
+ * to drive an instance that is already running (e.g. started with --spring.profiles.active=seed) instead.
+ * Tagged "load" and excluded from the default build; run with: mvn -Pload test -Dtest=TrafficMixLoadTest
+ * (-Dload.clients, -Dload.duration, -Dload.warmup and -Dload.seed change the run, and
+ * -Dload.patients and -Dload.readings the size of the dataset seeded for an embedded run).
+ */
+@Tag("load")
+class TrafficMixLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 50);
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT60S"));
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT15S"));
+    private static final long SEED = Long.getLong("load.seed", 42);
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Wilson", "Anderson", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Thompson", "White", "Harris",
+            "Clark", "Lewis", "Walker", "Young", "King", "Wright", "Scott", "Okafor", "Chikere", "Nwosu", "Nguyen", "Patel"};
+
+    /**
+     * Endpoints of the traffic mix, with their share of requests in percent
+     */
+    private enum Endpoint {
+        DASHBOARD(15),
+        PATIENT_LIST(10),
+        PATIENT_VIEW(15),
+        READING_LIST(20),
+        CHART_PAGE(10),
+        CHART_DATA(15),
+        RECORD_READING(15);
+
+        private final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+
+        static Endpoint pick(Random random) {
+            int roll = random.nextInt(100);
+            for (Endpoint endpoint : values()) {
+                roll -= endpoint.weight;
+                if (roll < 0) {
+                    return endpoint;
+                }
+            }
+            return DASHBOARD;
+        }
+    }
+
+    @Test
+    void replayTrafficMix() throws Exception {
+        String baseUrl = System.getProperty("load.base-url");
+        if (baseUrl != null) {
+            run(baseUrl);
+            return;
+        }
+
+        // Passed as command line arguments, which take precedence over application.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AppApplication.class)
+                .profiles("seed")
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:traffic-mix",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.thymeleaf.cache=true",
+                        "--logging.level.org.chikere.bptracker=INFO",
+                        "--app.seed.patients=" + Integer.getInteger("load.patients", 2000),
+                        "--app.seed.readings-per-patient=" + Integer.getInteger("load.readings", 100),
+                        // Measure queueing as latency rather than as rejected requests
+                        "--app.web.queue-timeout=PT1M")) {
+            run("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+        }
+    }
+
+    private void run(String baseUrl) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        logIn(client, baseUrl);
+        List<Long> patientIds = findPatients(client, baseUrl);
+        assertFalse(patientIds.isEmpty(), "No patients found to drive traffic against");
+
+        drive(client, baseUrl, patientIds, WARMUP, SEED - 1);
+        Map<Endpoint, Stats> stats = drive(client, baseUrl, patientIds, DURATION, SEED);
+
+        double seconds = DURATION.toMillis() / 1000.0;
+        System.out.printf("%n%d clients, %s, %d patients%n", CLIENTS, DURATION, patientIds.size());
+        System.out.printf("%-15s %9s %7s %9s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        Stats total = new Stats();
+        stats.forEach((endpoint, endpointStats) -> {
+            endpointStats.print(endpoint.name().toLowerCase(), seconds);
+            total.addAll(endpointStats);
+        });
+        total.print("total", seconds);
+
+        assertEquals(0, total.errors, "Failed requests");
+    }
+
+    /**
+     * Have every client send requests from the mix, back to back, until the duration has passed
+     */
+    private static Map<Endpoint, Stats> drive(HttpClient client, String baseUrl, List<Long> patientIds,
+                                              Duration duration, long seed) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Map<Endpoint, Stats>> perClient = new ArrayList<>(CLIENTS);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Map<Endpoint, Stats>>> futures = new ArrayList<>(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                Random random = new Random(seed * 1_000 + c);
+                futures.add(clients.submit(() -> {
+                    Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+                    while (System.nanoTime() < deadline) {
+                        Endpoint endpoint = Endpoint.pick(random);
+                        long patientId = patientIds.get(random.nextInt(patientIds.size()));
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = send(client, baseUrl, endpoint, patientId, random);
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        stats.computeIfAbsent(endpoint, e -> new Stats()).add(System.nanoTime() - start, ok);
+                    }
+                    return stats;
+                }));
+            }
+            for (Future<Map<Endpoint, Stats>> future : futures) {
+                perClient.add(future.get());
+            }
+        }
+
+        Map<Endpoint, Stats> merged = new EnumMap<>(Endpoint.class);
+        perClient.forEach(stats -> stats.forEach((endpoint, endpointStats) ->
+                merged.computeIfAbsent(endpoint, e -> new Stats()).addAll(endpointStats)));
+        return merged;
+    }
+
+    private static boolean send(HttpClient client, String baseUrl, Endpoint endpoint, long patientId, Random random)
+            throws Exception {
+        return switch (endpoint) {
+            case DASHBOARD -> get(client, baseUrl + "/dashboard") == 200;
+            case PATIENT_LIST -> get(client, baseUrl + "/patients") == 200;
+            case PATIENT_VIEW -> get(client, baseUrl + "/patients/" + patientId) == 200;
+            case READING_LIST -> get(client, baseUrl + "/bp-readings/patient/" + patientId) == 200;
+            case CHART_PAGE -> get(client, baseUrl + "/bp-readings/patient/" + patientId + "/chart?period=week") == 200;
+            case CHART_DATA -> get(client, baseUrl + "/bp-readings/patient/" + patientId + "/chart-data?period=month") == 200;
+            case RECORD_READING -> {
+                int systolic = (int) Math.round(Math.clamp(130 + 18 * random.nextGaussian(), 90, 210));
+                int diastolic = (int) Math.round(Math.clamp(82 + 11 * random.nextGaussian(), 55, systolic - 20));
+                String form = "systolicPressure=" + systolic + "&diastolicPressure=" + diastolic +
+                        "&heartRate=" + (60 + random.nextInt(40)) + "&notes=load+test";
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/bp-readings/patient/" + patientId + "/record"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .timeout(Duration.ofMinutes(2))
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build();
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                // A failed save redirects back to the record form
+                yield response.statusCode() == 302 && response.headers().firstValue("Location")
+                        .filter(location -> location.endsWith("/bp-readings/patient/" + patientId)).isPresent();
+            }
+        };
+    }
+
+    /**
+     * Collect patient IDs through the typeahead endpoint, which works against any running instance
+     */
+    private static List<Long> findPatients(HttpClient client, String baseUrl) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Set<Long> ids = new LinkedHashSet<>();
+        for (String lastName : LAST_NAMES) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/patients/typeahead?limit=20&q=" + lastName)).build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            for (JsonNode suggestion : objectMapper.readTree(response.body())) {
+                ids.add(suggestion.get("id").asLong());
+            }
+        }
+        return List.copyOf(ids);
+    }
+
+    private static void logIn(HttpClient client, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("username=nurse&password=password"))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        assertEquals(baseUrl + "/dashboard", response.headers().firstValue("Location").orElse(null), "Login failed");
+    }
+
+    private static int get(HttpClient client, String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofMinutes(2)).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Latencies and error count of one endpoint
+     */
+    private static class Stats {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void add(long latencyNanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        void addAll(Stats other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        void print(String name, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf("%-15s %9d %7d %9.1f %9.1f %9.1f %9.1f%n", name, count, errors, count / seconds,
+                    percentile(sorted, 50), percentile(sorted, 99), percentile(sorted, 100));
+        }
+
+        private static double percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
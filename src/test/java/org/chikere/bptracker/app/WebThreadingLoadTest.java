@@ -0,0 +1,140 @@
+package org.chikere.bptracker.app;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Load comparison of the web tier on Tomcat's platform thread pool and on virtual threads.
+ * Starts the application once per mode on a random port, logs in once and has many concurrent clients
+ * page through the dashboard, patient and reading pages, then prints throughput and latency percentiles side by side.
+ * Tagged "load" and excluded from the default build; run with: mvn -Pload test
+ * (clients and requests per client can be changed with -Dload.clients and -Dload.requests).
+ */
+@Tag("load")
+class WebThreadingLoadTest {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 400);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("load.requests", 25);
+    private static final int WARMUP_REQUESTS = 500;
+    private static final String[] PATHS = {"/dashboard", "/patients", "/patients/3", "/bp-readings/patient/3",
+            "/bp-readings/patient/3/chart?period=week"};
+
+    @Test
+    void compareThreadingModes() throws Exception {
+        Result platform = run("platform", false);
+        Result virtual = run("virtual", true);
+
+        System.out.printf("%n%-10s %10s %12s %10s %10s %10s%n", "threads", "requests", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-10s %10d %12.1f %10.1f %10.1f %10.1f%n", result.mode(), result.requests(),
+                    result.throughput(), result.percentile(50), result.percentile(99), result.percentile(100));
+        }
+
+        assertEquals(0, platform.failures(), "Failed requests on platform threads");
+        assertEquals(0, virtual.failures(), "Failed requests on virtual threads");
+    }
+
+    private Result run(String mode, boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(AppApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + mode,
+                        "spring.jpa.show-sql=false",
+                        "spring.thymeleaf.cache=true",
+                        "logging.level.org.chikere.bptracker=INFO",
+                        // Measure queueing as latency rather than as rejected requests
+                        "app.web.queue-timeout=PT1M")
+                .run()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .cookieHandler(new CookieManager())
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            logIn(client, baseUrl);
+
+            for (int i = 0; i < WARMUP_REQUESTS; i++) {
+                get(client, baseUrl + PATHS[i % PATHS.length]);
+            }
+
+            long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            AtomicInteger failures = new AtomicInteger();
+            long start = System.nanoTime();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>(CLIENTS);
+                for (int c = 0; c < CLIENTS; c++) {
+                    int clientIndex = c;
+                    futures.add(clients.submit(() -> {
+                        for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                            String path = PATHS[(clientIndex + r) % PATHS.length];
+                            long requestStart = System.nanoTime();
+                            try {
+                                if (get(client, baseUrl + path) != 200) {
+                                    failures.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                failures.incrementAndGet();
+                            }
+                            latencies[clientIndex * REQUESTS_PER_CLIENT + r] = System.nanoTime() - requestStart;
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            return new Result(mode, latencies, elapsed, failures.get());
+        }
+    }
+
+    private static void logIn(HttpClient client, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("username=nurse&password=password"))
+                .build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        assertEquals(baseUrl + "/dashboard", response.headers().firstValue("Location").orElse(null), "Login failed");
+    }
+
+    private static int get(HttpClient client, String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofMinutes(2)).build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private record Result(String mode, long[] sortedLatencies, long elapsedNanos, int failures) {
+
+        int requests() {
+            return sortedLatencies.length;
+        }
+
+        double throughput() {
+            return requests() / (elapsedNanos / 1e9);
+        }
+
+        double percentile(int percentile) {
+            int index = Math.min(sortedLatencies.length - 1, (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
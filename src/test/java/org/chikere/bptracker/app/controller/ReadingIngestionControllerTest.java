@@ -0,0 +1,141 @@
+package org.chikere.bptracker.app.controller;
+
+import org.chikere.bptracker.app.service.AlertService;
+import org.chikere.bptracker.app.service.ReadingIngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Parsing of JSON array and newline-delimited JSON bodies by {@link ReadingIngestionController}, with a row limit
+ * of three. Requests over the limit must be rejected before any row reaches the ingestion service.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ingestioncontroller",
+        "spring.jpa.show-sql=false",
+        "app.bulk.max-rows=3"
+})
+@AutoConfigureMockMvc
+@WithUserDetails("nurse")
+class ReadingIngestionControllerTest {
+
+    private static final AtomicLong PATIENT_IDS = new AtomicLong(3_000_000);
+    private static final String NDJSON = "application/x-ndjson";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private ReadingIngestionService ingestionService;
+
+    @MockitoBean
+    private AlertService alertService;
+
+    private long patientId;
+
+    @BeforeEach
+    void createPatient() {
+        patientId = PATIENT_IDS.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO patients (id, first_name, last_name, phone_number, registration_date) " +
+                "VALUES (?, 'Bulk', 'Test', '5550001111', current_date)", patientId);
+        clearInvocations(ingestionService);
+    }
+
+    @Test
+    void jsonArrayRowsAreIngestedInOrder() throws Exception {
+        String body = "[" + reading(118, 76) + ", null, " + reading(300, 80) + "]";
+
+        mockMvc.perform(post("/bp-readings/bulk").contentType(MediaType.APPLICATION_JSON).content(body).with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(3))
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rows[0].status").value("ACCEPTED"))
+                .andExpect(jsonPath("$.rows[0].alertLevel").value("NORMAL"))
+                .andExpect(jsonPath("$.rows[1].errors[0]").value("Malformed row"))
+                .andExpect(jsonPath("$.rows[2].errors[0]").value("Systolic pressure must be at most 250"));
+    }
+
+    @Test
+    void ndjsonLinesAreIngestedAndUnparsableLinesRejected() throws Exception {
+        // The blank line is skipped and does not count as a row
+        String body = reading(145, 92) + "\n\n{\"patientId\": \n" + reading(121, 79) + "\n";
+
+        mockMvc.perform(post("/bp-readings/bulk").contentType(NDJSON).content(body).with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(3))
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rows[0].alertLevel").value("HIGH"))
+                .andExpect(jsonPath("$.rows[1].status").value("REJECTED"))
+                .andExpect(jsonPath("$.rows[1].errors[0]").value("Malformed row"))
+                .andExpect(jsonPath("$.rows[2].alertLevel").value("ELEVATED"));
+    }
+
+    @Test
+    void jsonArrayOverRowLimitIsRejectedWhileParsing() throws Exception {
+        // The fifth element is not valid JSON, so a 413 shows parsing stopped at the fourth row
+        String body = "[" + reading(120, 80) + ", " + reading(120, 80) + ", " + reading(120, 80) + ", "
+                + reading(120, 80) + ", {oops";
+
+        mockMvc.perform(post("/bp-readings/bulk").contentType(MediaType.APPLICATION_JSON).content(body).with(csrf()))
+                .andExpect(status().isPayloadTooLarge());
+
+        verify(ingestionService, never()).ingest(any(), any());
+    }
+
+    @Test
+    void ndjsonOverRowLimitIsRejectedWhileParsing() throws Exception {
+        String body = reading(120, 80) + "\n" + reading(120, 80) + "\n" + reading(120, 80) + "\n"
+                + reading(120, 80) + "\n";
+
+        mockMvc.perform(post("/bp-readings/bulk").contentType(NDJSON).content(body).with(csrf()))
+                .andExpect(status().isPayloadTooLarge());
+
+        verify(ingestionService, never()).ingest(any(), any());
+    }
+
+    @Test
+    void rowLimitItselfIsAccepted() throws Exception {
+        String body = "[" + reading(120, 80) + ", " + reading(121, 80) + ", " + reading(122, 80) + "]";
+
+        mockMvc.perform(post("/bp-readings/bulk").contentType(MediaType.APPLICATION_JSON).content(body).with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(3));
+    }
+
+    @Test
+    void jsonBodyThatIsNotAnArrayIsRejected() throws Exception {
+        mockMvc.perform(post("/bp-readings/bulk").contentType(MediaType.APPLICATION_JSON).content(reading(120, 80)).with(csrf()))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/bp-readings/bulk").contentType(MediaType.APPLICATION_JSON).content("[" + reading(120, 80)).with(csrf()))
+                .andExpect(status().isBadRequest());
+
+        verify(ingestionService, never()).ingest(any(), any());
+    }
+
+    private String reading(int systolic, int diastolic) {
+        return "{\"patientId\": " + patientId + ", \"systolicPressure\": " + systolic + ", \"diastolicPressure\": "
+                + diastolic + ", \"readingTime\": \"2025-03-01T09:30:00\", \"deviceId\": \"gw-1\"}";
+    }
+}
@@ -0,0 +1,187 @@
+package org.chikere.bptracker.app.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.chikere.bptracker.app.SqlStatementCounter;
+import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the SQL Hibernate generates for the hot repository queries is planned as index scans.
+ * Each check calls the repository, captures the statement with {@link SqlStatementCounter} and explains it
+ * with the call's parameter values, so a change to the JPQL or a derived query is checked as well.
+ * Subclasses supply the database and how to recognize a full table scan in its plans; they must register
+ * {@link SqlStatementCounter} as Hibernate's statement inspector.
+ */
+abstract class AbstractQueryPlanTest {
+
+    /**
+     * Test properties registering the statement inspector the generated SQL is captured with
+     */
+    static final String STATEMENT_INSPECTOR =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=org.chikere.bptracker.app.SqlStatementCounter";
+
+    private static final int PAGE_LIMIT = 21;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private BloodPressureReadingRepository bpRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private long patientId;
+
+    @BeforeEach
+    void findPatient() {
+        prepareData();
+        patientId = jdbcTemplate.queryForObject(
+                "SELECT MIN(patient_id) FROM blood_pressure_readings", Long.class);
+    }
+
+    /**
+     * Hook for adding rows before the plans are checked
+     */
+    protected void prepareData() {
+    }
+
+    /**
+     * Get the marker a plan contains when it scans a whole table
+     * @return the table scan marker
+     */
+    protected abstract String tableScanMarker();
+
+    /**
+     * Whether a plan that does not use the expected index instead looks up another index by the same leading column.
+     * Only databases that cannot tell such indexes apart should accept this.
+     * @param plan the query plan
+     * @param leadingColumn the leading column of the expected index
+     * @return true if the plan is accepted
+     */
+    protected boolean usesIndexOn(String plan, String leadingColumn) {
+        return false;
+    }
+
+    @Test
+    void latestReadingsForPatientUsePatientTimeIndex() {
+        assertUsesIndex("idx_bp_readings_patient_time", "patient_id",
+                () -> bpRepository.findListItemsByPatientId(patientId, Limit.of(PAGE_LIMIT)),
+                patientId, PAGE_LIMIT);
+    }
+
+    @Test
+    void olderReadingsPageForPatientUsesPatientTimeIndex() {
+        LocalDateTime before = LocalDateTime.now();
+        assertUsesIndex("idx_bp_readings_patient_time", "patient_id",
+                () -> bpRepository.findListItemsForPatientBefore(patientId, before, 1000L, Limit.of(PAGE_LIMIT)),
+                patientId, before, before, 1000L, PAGE_LIMIT);
+    }
+
+    @Test
+    void readingsForPatientBetweenDatesUsePatientTimeIndex() {
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime start = end.minusDays(30);
+        assertUsesIndex("idx_bp_readings_patient_time", "patient_id",
+                () -> bpRepository.findByPatientIdAndReadingTimeBetween(patientId, start, end),
+                patientId, start, end);
+    }
+
+    @Test
+    void criticalReadingsForPatientUsePatientAlertLevelIndex() {
+        assertUsesIndex("idx_bp_readings_patient_alert_level", "patient_id",
+                () -> bpRepository.findByPatientIdAndAlertLevel(patientId, BloodPressureReading.AlertLevel.CRITICAL),
+                patientId, BloodPressureReading.AlertLevel.CRITICAL.name());
+    }
+
+    @Test
+    void latestReadingEntitiesForPatientUsePatientTimeIndex() {
+        assertUsesIndex("idx_bp_readings_patient_time", "patient_id",
+                () -> bpRepository.findByPatientIdOrderByReadingTimeDescIdDesc(patientId, Limit.of(PAGE_LIMIT)),
+                patientId, PAGE_LIMIT);
+    }
+
+    @Test
+    void readingCountsForPatientUseAnIndex() {
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime start = end.minusDays(30);
+        assertIndexScan(generatedSql(() -> bpRepository.countByPatientId(patientId)), patientId);
+        assertIndexScan(generatedSql(() -> bpRepository.countByPatientIdAndReadingTimeBetween(patientId, start, end)),
+                patientId, start, end);
+    }
+
+    @Test
+    void patientsInNameOrderUseNameIndex() {
+        assertUsesIndex("idx_patients_name", null,
+                () -> patientRepository.findListItemsOrderByName(Limit.of(PAGE_LIMIT)),
+                PAGE_LIMIT);
+    }
+
+    @Test
+    void patientsByPhoneNumberUsePhoneIndex() {
+        assertUsesIndex("idx_patients_phone_number", null,
+                () -> patientRepository.findByPhoneNumber("5550000042"),
+                "5550000042");
+    }
+
+    @Test
+    void usersByUsernameAndEmailUseUniqueIndexes() {
+        assertIndexScan(generatedSql(() -> userRepository.findByUsername("nurse")), "nurse");
+        assertIndexScan(generatedSql(() -> userRepository.findByEmail("nurse@example.com")), "nurse@example.com");
+    }
+
+    /**
+     * Check that the query behind a repository call uses an index
+     * @param indexName the index the planner is expected to pick
+     * @param leadingColumn the filtered leading column shared with other indexes, or null if the index is the only candidate
+     * @param repositoryCall the repository call
+     * @param parameters the values of the statement's JDBC parameters, in the order they appear in the SQL
+     */
+    private void assertUsesIndex(String indexName, String leadingColumn, Runnable repositoryCall, Object... parameters) {
+        String plan = assertIndexScan(generatedSql(repositoryCall), parameters);
+        assertTrue(plan.toLowerCase().contains(indexName) || (leadingColumn != null && usesIndexOn(plan, leadingColumn)),
+                () -> "Expected " + indexName + " in plan:\n" + plan);
+    }
+
+    private String assertIndexScan(String sql, Object... parameters) {
+        String plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters).stream()
+                .collect(Collectors.joining("\n"));
+        assertFalse(plan.contains(tableScanMarker()), () -> "Expected an index scan in plan:\n" + plan);
+        return plan;
+    }
+
+    /**
+     * Run a repository call with a cold second-level cache and capture the single statement it issues
+     */
+    private String generatedSql(Runnable repositoryCall) {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        SqlStatementCounter.start();
+        List<String> statements;
+        try {
+            repositoryCall.run();
+        } finally {
+            statements = SqlStatementCounter.stop();
+        }
+        assertEquals(1, statements.size(), () -> "Expected one statement:\n" + String.join("\n", statements));
+        return statements.get(0);
+    }
+}
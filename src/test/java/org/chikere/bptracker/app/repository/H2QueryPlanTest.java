@@ -0,0 +1,27 @@
+package org.chikere.bptracker.app.repository;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.regex.Pattern;
+
+/**
+ * Query plan checks against the default in-memory H2 database and its sample data
+ */
+@SpringBootTest(properties = AbstractQueryPlanTest.STATEMENT_INSPECTOR)
+class H2QueryPlanTest extends AbstractQueryPlanTest {
+
+    @Override
+    protected String tableScanMarker() {
+        return ".tableScan";
+    }
+
+    /**
+     * H2 has no column statistics to separate indexes that share a leading column,
+     * e.g. it may use the foreign key index on patient_id instead of the composite index.
+     * Its plans name the index condition after the index, as in {@code IDX: B1_0.PATIENT_ID = ?1}.
+     */
+    @Override
+    protected boolean usesIndexOn(String plan, String leadingColumn) {
+        return Pattern.compile(":\\s*(\\w+\\.)?\"?" + leadingColumn + "\"?\\s*=", Pattern.CASE_INSENSITIVE).matcher(plan).find();
+    }
+}
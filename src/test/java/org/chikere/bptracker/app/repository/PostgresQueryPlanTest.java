@@ -0,0 +1,77 @@
+package org.chikere.bptracker.app.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+
+/**
+ * Query plan checks against a local embedded PostgreSQL instance holding production-like row counts.
+ * The schema is created by Hibernate from the entity mappings, exactly as in a deployment.
+ * Skipped when the PostgreSQL binaries cannot be started on the build machine.
+ */
+@SpringBootTest(properties = AbstractQueryPlanTest.STATEMENT_INSPECTOR)
+class PostgresQueryPlanTest extends AbstractQueryPlanTest {
+
+    private static EmbeddedPostgres postgres;
+    private static boolean rowsLoaded;
+
+    @BeforeAll
+    static void startPostgres() {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException | IllegalStateException e) {
+            Assumptions.abort("Embedded PostgreSQL unavailable: " + e.getMessage());
+        }
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    /**
+     * Add bulk rows once, so the planner weighs index scans against sequential scans with real statistics
+     */
+    @Override
+    protected void prepareData() {
+        if (rowsLoaded) {
+            return;
+        }
+        jdbcTemplate.execute("INSERT INTO patients (first_name, last_name, phone_number, registration_date) " +
+                "SELECT 'First' || g, 'Last' || (g % 700), '555' || lpad(g::text, 7, '0'), current_date " +
+                "FROM generate_series(1, 2000) g");
+        jdbcTemplate.execute("INSERT INTO blood_pressure_readings " +
+                "(patient_id, systolic, diastolic, reading_time, alert_level, created_at) " +
+                "SELECT p.id, 110 + g % 80, 70 + g % 50, LOCALTIMESTAMP - g * INTERVAL '3 days', " +
+                "CASE WHEN g % 20 = 0 THEN 'CRITICAL' ELSE 'NORMAL' END, LOCALTIMESTAMP " +
+                "FROM patients p CROSS JOIN generate_series(1, 100) g");
+        jdbcTemplate.execute("INSERT INTO users (username, password, full_name, email, role, enabled) " +
+                "SELECT 'user' || g, 'x', 'User ' || g, 'user' || g || '@example.com', 'SUPPORT_WORKER', true " +
+                "FROM generate_series(1, 5000) g");
+        jdbcTemplate.execute("ANALYZE");
+        rowsLoaded = true;
+    }
+
+    @Override
+    protected String tableScanMarker() {
+        return "Seq Scan";
+    }
+}
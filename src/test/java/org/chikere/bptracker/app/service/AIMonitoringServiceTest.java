@@ -0,0 +1,174 @@
+package org.chikere.bptracker.app.service;
+
+import org.chikere.bptracker.app.model.Patient;
+import org.chikere.bptracker.app.model.PatientTrendState;
+import org.chikere.bptracker.app.repository.BloodPressureReadingRepository;
+import org.chikere.bptracker.app.repository.PatientTrendStateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Sweeps of {@link AIMonitoringService} over readings inserted with explicit IDs, so readings can be made to
+ * commit out of ID order. The sweep position and trend states are reset before each test.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:aimonitoring",
+        "spring.jpa.show-sql=false"
+})
+class AIMonitoringServiceTest {
+
+    private static final AtomicLong IDS = new AtomicLong(1_000_000);
+
+    @Autowired
+    private AIMonitoringService monitoringService;
+
+    @Autowired
+    private BloodPressureService bpService;
+
+    @Autowired
+    private PatientTrendStateRepository trendStateRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private BloodPressureReadingRepository bpRepository;
+
+    @MockitoBean
+    private AlertService alertService;
+
+    @BeforeEach
+    void resetSweep() {
+        jdbcTemplate.update("DELETE FROM trend_sweep_positions");
+        jdbcTemplate.update("DELETE FROM patient_trend_states");
+    }
+
+    @Test
+    void sweepFoldsNewReadingsIntoStoredWindow() {
+        long patientId = createPatient();
+        LocalDateTime newest = addDailyReadings(patientId, 28, 0);
+        monitoringService.analyzeAllPatients();
+        PatientTrendState before = trendStateRepository.findById(patientId).orElseThrow();
+        clearInvocations(bpRepository);
+
+        long readingId = addReading(IDS.incrementAndGet(), patientId, newest.plusMinutes(1), 128, 80);
+        monitoringService.analyzeAllPatients();
+
+        PatientTrendState after = trendStateRepository.findById(patientId).orElseThrow();
+        verify(bpRepository, never()).findPointsByPatientIdsBetween(any(), any(), any());
+        assertEquals(readingId, after.getLastReadingId());
+        assertEquals(29, TrendWindow.unpack(after.getWindowReadings()).size());
+        assertEquals(before.getBaselineReadings(), after.getBaselineReadings());
+        assertTrue(after.getBaselineReadings() >= 20, () -> "Baseline readings: " + after.getBaselineReadings());
+    }
+
+    @Test
+    void readingCommittedBehindSweepIsAnalyzedByNextSweep() {
+        long first = createPatient();
+        long second = createPatient();
+        long base = IDS.getAndAdd(10);
+        addReading(base + 1, first, LocalDateTime.now().minusHours(3), 130, 80);
+        addReading(base + 2, first, LocalDateTime.now().minusHours(2), 130, 80);
+        monitoringService.analyzeAllPatients();
+        addReading(base + 4, first, LocalDateTime.now().minusHours(1), 130, 80);
+        monitoringService.analyzeAllPatients();
+
+        // Took its ID before the reading the last sweep saw, but committed after that sweep
+        addReading(base + 3, second, LocalDateTime.now().minusMinutes(30), 130, 80);
+        monitoringService.analyzeAllPatients();
+
+        PatientTrendState state = trendStateRepository.findById(second).orElseThrow();
+        assertEquals(base + 3, state.getLastReadingId());
+    }
+
+    @Test
+    void failedAnalysisIsRetriedUntilItSucceeds() {
+        long patientId = createPatient();
+        addDailyReadings(patientId, 28, 40);
+        ArgumentMatcher<Patient> patient = candidate -> candidate.getId() == patientId;
+        doThrow(new IllegalStateException("SMS gateway down"))
+                .doThrow(new IllegalStateException("SMS gateway down"))
+                .doNothing()
+                .when(alertService).triggerAbnormalTrendAlert(argThat(patient), anyString());
+
+        for (int i = 0; i < 3; i++) {
+            monitoringService.analyzeAllPatients();
+            // Moves the end of the scanned readings on between sweeps
+            addReading(IDS.incrementAndGet(), createPatient(), LocalDateTime.now().minusMinutes(5), 120, 80);
+        }
+
+        verify(alertService, times(3)).triggerAbnormalTrendAlert(argThat(patient), anyString());
+        assertTrue(trendStateRepository.existsById(patientId));
+    }
+
+    @Test
+    void deletedReadingLeavesWindowAndBaselineIsKept() {
+        long patientId = createPatient();
+        LocalDateTime newest = addDailyReadings(patientId, 28, 0);
+        monitoringService.analyzeAllPatients();
+        long baselineReadings = trendStateRepository.findById(patientId).orElseThrow().getBaselineReadings();
+        long deletedId = IDS.get();
+
+        bpService.deleteReading(deletedId);
+        assertTrue(trendStateRepository.findById(patientId).orElseThrow().isWindowStale());
+        long addedId = addReading(IDS.incrementAndGet(), patientId, newest.plusMinutes(1), 128, 80);
+        monitoringService.analyzeAllPatients();
+
+        PatientTrendState state = trendStateRepository.findById(patientId).orElseThrow();
+        TrendWindow window = TrendWindow.unpack(state.getWindowReadings());
+        assertFalse(state.isWindowStale());
+        assertFalse(window.contains(deletedId));
+        assertTrue(window.contains(addedId));
+        assertEquals(28, window.size());
+        assertEquals(baselineReadings, state.getBaselineReadings());
+    }
+
+    private long createPatient() {
+        long patientId = IDS.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO patients (id, first_name, last_name, phone_number, registration_date) " +
+                "VALUES (?, 'Trend', 'Test', '5550001111', current_date)", patientId);
+        return patientId;
+    }
+
+    /**
+     * Add one reading a day at noon, ending yesterday, alternating around 130/80, with the systolic pressure raised
+     * by the given step over the last week
+     * @return the time of the newest reading
+     */
+    private LocalDateTime addDailyReadings(long patientId, int days, int recentStep) {
+        LocalDateTime day = LocalDateTime.now().minusDays(days).withHour(12).withMinute(0).withSecond(0).withNano(0);
+        for (int i = 0; i < days; i++, day = day.plusDays(1)) {
+            int step = i >= days - 7 ? recentStep : 0;
+            addReading(IDS.incrementAndGet(), patientId, day, 130 + step + (i % 2 == 0 ? 6 : -6), 80 + (i % 3) * 3);
+        }
+        return day.minusDays(1);
+    }
+
+    private long addReading(long id, long patientId, LocalDateTime readingTime, int systolic, int diastolic) {
+        jdbcTemplate.update("INSERT INTO blood_pressure_readings (id, patient_id, systolic, diastolic, reading_time, alert_level) " +
+                "VALUES (?, ?, ?, ?, ?, 'NORMAL')", id, patientId, systolic, diastolic, readingTime);
+        return id;
+    }
+}
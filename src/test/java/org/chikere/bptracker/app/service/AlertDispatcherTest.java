@@ -0,0 +1,82 @@
+package org.chikere.bptracker.app.service;
+
+import org.chikere.bptracker.app.event.AlertEvent;
+import org.chikere.bptracker.app.model.AlertDeadLetter;
+import org.chikere.bptracker.app.repository.AlertDeadLetterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Alert dispatch with a single delivery thread and a single queue slot, so two blocked tasks saturate it
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:alertdispatcher",
+        "spring.jpa.show-sql=false",
+        "app.alerts.dispatch.concurrency=1",
+        "app.alerts.dispatch.queue-capacity=1"
+})
+class AlertDispatcherTest {
+
+    private static final long PATIENT_ID = 424_242L;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ThreadPoolExecutor alertDispatchExecutor;
+
+    @Autowired
+    private AlertDeadLetterRepository deadLetterRepository;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void releaseExecutor() {
+        release.countDown();
+    }
+
+    @Test
+    void alertRejectedAfterCommitIsDeadLettered() throws InterruptedException {
+        // Let alerts raised by the sample data drain, then occupy the delivery thread and the queue slot
+        while (alertDispatchExecutor.getActiveCount() > 0 || !alertDispatchExecutor.getQueue().isEmpty()) {
+            Thread.sleep(10);
+        }
+        CountDownLatch started = new CountDownLatch(1);
+        alertDispatchExecutor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        started.await();
+        alertDispatchExecutor.execute(this::awaitRelease);
+        AlertEvent event = new AlertEvent(AlertEvent.Type.HIGH_BP, PATIENT_ID, 7L, "High BP alert",
+                "5550002222", "ALERT: High BP");
+
+        transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(event));
+
+        List<AlertDeadLetter> deadLetters = deadLetterRepository.findByPatientIdOrderByCreatedAtDesc(PATIENT_ID);
+        assertEquals(1, deadLetters.size());
+        assertEquals("Dispatch queue full", deadLetters.get(0).getLastError());
+        assertEquals(0, deadLetters.get(0).getAttempts());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package org.chikere.bptracker.app.service;
+
+import org.chikere.bptracker.app.dto.ReadingPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Point selection of {@link LttbDownsampler} on hourly series
+ */
+class LttbDownsamplerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Test
+    void seriesNoLongerThanThresholdPassesThrough() {
+        List<ReadingPoint> series = series(7, new Random(1));
+
+        assertEquals(series, downsample(series, series.size(), 7));
+        assertEquals(series, downsample(series, series.size(), 20));
+    }
+
+    @Test
+    void thresholdOfThreeKeepsEndsAndLargestTriangle() {
+        List<ReadingPoint> series = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            series.add(point(i, i == 6 ? 190 : 120, i == 6 ? 110 : 80));
+        }
+
+        List<ReadingPoint> sampled = downsample(series, series.size(), 3);
+
+        assertEquals(List.of(series.get(0), series.get(6), series.get(9)), sampled);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"100, 10", "101, 10", "102, 10", "1000, 3", "1000, 4", "1000, 999", "37, 12", "24, 23"})
+    void emitsThresholdPointsIncludingFirstAndLast(int size, int threshold) {
+        List<ReadingPoint> series = series(size, new Random(size * 31L + threshold));
+
+        List<ReadingPoint> sampled = downsample(series, size, threshold);
+
+        assertEquals(threshold, sampled.size());
+        assertEquals(series.get(0), sampled.get(0));
+        assertEquals(series.get(size - 1), sampled.get(threshold - 1));
+        assertInOrder(series, sampled);
+    }
+
+    @Test
+    void spikeIsKept() {
+        List<ReadingPoint> series = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            series.add(point(i, i == 321 ? 210 : 125 + i % 3, 80 + i % 2));
+        }
+
+        List<ReadingPoint> sampled = downsample(series, series.size(), 20);
+
+        assertTrue(sampled.contains(series.get(321)), "Spike dropped");
+    }
+
+    @Test
+    void lastBucketIsResolvedWhenSeriesEndsOnBucketBoundary() {
+        // 2 + 4 * 3 points: the final point follows the last point of the third bucket
+        List<ReadingPoint> series = series(14, new Random(2));
+
+        List<ReadingPoint> sampled = downsample(series, series.size(), 6);
+
+        assertEquals(6, sampled.size());
+        assertEquals(series.get(13), sampled.get(5));
+        // One point from each of the buckets [1, 4), [4, 7), [7, 10) and [10, 13)
+        int[] bucketStarts = {1, 4, 7, 10, 13};
+        for (int bucket = 0; bucket < 4; bucket++) {
+            int index = series.indexOf(sampled.get(bucket + 1));
+            assertTrue(index >= bucketStarts[bucket] && index < bucketStarts[bucket + 1],
+                    "Point " + index + " outside bucket " + bucket);
+        }
+    }
+
+    @Test
+    void fewerPointsThanExpectedStillEndWithLastPoint() {
+        // The count is taken by a separate query, so readings may be deleted before they are streamed
+        List<ReadingPoint> series = series(60, new Random(3));
+
+        List<ReadingPoint> sampled = downsample(series, 100, 10);
+
+        assertTrue(sampled.size() <= 10, () -> "Emitted " + sampled.size());
+        assertEquals(series.get(0), sampled.get(0));
+        assertEquals(series.get(59), sampled.get(sampled.size() - 1));
+        assertInOrder(series, sampled);
+    }
+
+    @Test
+    void morePointsThanExpectedAreFoldedIntoLastBucket() {
+        List<ReadingPoint> series = series(150, new Random(4));
+
+        List<ReadingPoint> sampled = downsample(series, 100, 10);
+
+        assertEquals(10, sampled.size());
+        assertEquals(series.get(149), sampled.get(9));
+        assertInOrder(series, sampled);
+    }
+
+    @Test
+    void shortSeriesAreEmittedWhole() {
+        assertEquals(List.of(), downsample(List.of(), 0, 5));
+        List<ReadingPoint> single = List.of(point(0, 120, 80));
+        assertEquals(single, downsample(single, 1, 5));
+        List<ReadingPoint> pair = List.of(point(0, 120, 80), point(1, 130, 85));
+        assertEquals(pair, downsample(pair, 2, 3));
+    }
+
+    @Test
+    void thresholdBelowThreeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LttbDownsampler(10, 2, point -> {
+        }));
+    }
+
+    private static List<ReadingPoint> downsample(List<ReadingPoint> series, long expectedPoints, int threshold) {
+        List<ReadingPoint> sampled = new ArrayList<>();
+        LttbDownsampler downsampler = new LttbDownsampler(expectedPoints, threshold, sampled::add);
+        series.forEach(downsampler);
+        downsampler.finish();
+        return sampled;
+    }
+
+    private static void assertInOrder(List<ReadingPoint> series, List<ReadingPoint> sampled) {
+        int previous = -1;
+        for (ReadingPoint point : sampled) {
+            int index = series.indexOf(point);
+            assertTrue(index > previous, () -> "Point " + index + " emitted out of order or twice");
+            previous = index;
+        }
+    }
+
+    private static List<ReadingPoint> series(int size, Random random) {
+        List<ReadingPoint> series = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            series.add(point(i, 125 + (int) Math.round(random.nextGaussian() * 12), 80 + (int) Math.round(random.nextGaussian() * 8)));
+        }
+        return series;
+    }
+
+    private static ReadingPoint point(int hour, int systolic, int diastolic) {
+        return new ReadingPoint(START.plusHours(hour), systolic, diastolic, null);
+    }
+}
@@ -0,0 +1,131 @@
+package org.chikere.bptracker.app.service;
+
+import org.chikere.bptracker.app.dto.PatientSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Matching and ranking of {@link PatientSearchIndex}, and its upkeep as patients are updated and deleted
+ */
+class PatientSearchIndexTest {
+
+    private final PatientSearchIndex index = new PatientSearchIndex();
+
+    @Test
+    void exactMatchesRankAbovePrefixSubstringAndFuzzyMatches() {
+        index.index(List.of(
+                patient(1L, "Tom", "Smith"),
+                patient(2L, "Uma", "Asmyth"),
+                patient(3L, "Val", "Smythe"),
+                patient(4L, "Wes", "Smyth"),
+                patient(5L, "Xia", "Jones")));
+
+        assertEquals(List.of(4L, 3L, 2L, 1L), index.search("smyth", 10));
+    }
+
+    @Test
+    void equallyGoodMatchesAreOrderedByName() {
+        index.index(List.of(
+                patient(1L, "Ann", "Moss"),
+                patient(2L, "Ann", "Lee"),
+                patient(3L, "Ann", "Baker"),
+                patient(4L, "Anna", "Adams")));
+
+        assertEquals(List.of(3L, 2L, 1L, 4L), index.search("ann", 10));
+        assertEquals(List.of(3L, 2L), index.search("ann", 2));
+    }
+
+    @Test
+    void shortWordsMatchOnlyExactlyOrByPrefixOrSubstring() {
+        index.index(List.of(
+                patient(1L, "Jon", "Lee"),
+                patient(2L, "Jonathan", "Lee"),
+                patient(3L, "Bjon", "Lee"),
+                patient(4L, "John", "Lee")));
+
+        // Three letters allow no edits, so "john" is not a fuzzy match
+        assertEquals(List.of(1L, 2L, 3L), index.search("jon", 10));
+        // Substrings need three letters; the prefix matches tie and are ordered by name
+        assertEquals(List.of(4L, 1L, 2L), index.search("jo", 10));
+    }
+
+    @Test
+    void diacriticsAndCaseAreIgnored() {
+        index.index(List.of(patient(1L, "Zoë", "Müller"), patient(2L, "Zoe", "Muller")));
+
+        assertEquals(List.of(1L, 2L), index.search("ZOE MULLER", 10));
+        assertEquals(List.of(1L, 2L), index.search("zoë müller", 10));
+        assertEquals(List.of("zoe", "o", "neil"), PatientSearchIndex.tokenize("Zoë O'Neil"));
+    }
+
+    @Test
+    void transposedLettersAreFuzzyMatches() {
+        index.index(List.of(patient(1L, "John", "Lee"), patient(2L, "Michael", "Stevenson")));
+
+        assertEquals(List.of(1L), index.search("jonh", 10));
+        assertEquals(List.of(2L), index.search("mcihael", 10));
+        // Long words allow two edits
+        assertEquals(List.of(2L), index.search("stevnesno", 10));
+        assertEquals(1, PatientSearchIndex.editDistance("jonh", "john", 2));
+        assertEquals(3, PatientSearchIndex.editDistance("abcdef", "badcfe", 2));
+    }
+
+    @Test
+    void everyQueryWordMustMatchAndScoresAdd() {
+        index.index(List.of(
+                patient(1L, "Ann", "Smyth"),
+                patient(2L, "Anne", "Smith"),
+                patient(3L, "Ann", "Smith"),
+                patient(4L, "Bob", "Smith"),
+                patient(5L, "Ann", "Jones")));
+
+        assertEquals(List.of(3L, 2L, 1L), index.search("ann smith", 10));
+        assertEquals(List.of(3L, 2L, 1L), index.search("smith ann", 10));
+        assertEquals(List.of(), index.search("bob jones", 10));
+    }
+
+    @Test
+    void updateRemovesOldNameTokens() {
+        index.index(List.of(patient(1L, "Ann", "Moss"), patient(2L, "Bob", "Lee")));
+
+        index.index(List.of(patient(1L, "Ann", "Lee")));
+
+        assertEquals(2, index.size());
+        assertEquals(List.of(), index.search("moss", 10));
+        assertEquals(List.of(), index.search("mos", 10));
+        assertEquals(List.of(), index.search("mosss", 10));
+        assertEquals(List.of(1L, 2L), index.search("lee", 10));
+    }
+
+    @Test
+    void deletedPatientsAreNoLongerFound() {
+        index.index(List.of(patient(1L, "Ann", "Moss"), patient(2L, "Anne", "Mossman")));
+
+        index.remove(1L);
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(2L), index.search("moss", 10));
+        assertEquals(List.of(2L), index.search("ann", 10));
+
+        index.remove(2L);
+        index.remove(2L);
+
+        assertEquals(0, index.size());
+        assertEquals(List.of(), index.search("ann", 10));
+        assertEquals(List.of(), index.search("mossmna", 10));
+    }
+
+    @Test
+    void blankQueryFindsNothing() {
+        index.index(List.of(patient(1L, "Ann", "Moss")));
+
+        assertEquals(List.of(), index.search(" , ", 10));
+    }
+
+    private static PatientSuggestion patient(Long id, String firstName, String lastName) {
+        return new PatientSuggestion(id, firstName, lastName, null, null);
+    }
+}
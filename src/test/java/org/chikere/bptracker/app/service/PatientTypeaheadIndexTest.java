@@ -0,0 +1,156 @@
+package org.chikere.bptracker.app.service;
+
+import org.chikere.bptracker.app.dto.PatientSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Insert, update, remove and re-insert in {@link PatientTypeaheadIndex}, checked through the suggestions it returns
+ */
+class PatientTypeaheadIndexTest {
+
+    private final PatientTypeaheadIndex index = new PatientTypeaheadIndex();
+
+    @Test
+    void keyEndingInsideAnEdgeSplitsIt() {
+        index.index(List.of(patient(1L, "Annabel", "Lee", null, null)));
+        // "ann" ends inside the "annabel" edge, which is split there
+        index.index(List.of(patient(2L, "Ann", "Moss", null, null)));
+
+        assertEquals(List.of(2L, 1L), ids(index.suggest("ann", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("anna", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("annabel", 10)));
+        assertEquals(List.of(), ids(index.suggest("annabelle", 10)));
+    }
+
+    @Test
+    void keysDivergingInsideAnEdgeSplitItAtTheFirstDifference() {
+        index.index(List.of(
+                patient(1L, "Martha", "Lee", null, null),
+                patient(2L, "Marty", "Lee", null, null),
+                patient(3L, "Mark", "Lee", null, null)));
+
+        assertEquals(List.of(3L, 1L, 2L), ids(index.suggest("mar", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.suggest("mart", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("marty", 10)));
+    }
+
+    @Test
+    void removalMergesEdgesBack() {
+        index.index(List.of(
+                patient(1L, "Annabel", "Lee", null, null),
+                patient(2L, "Ann", "Moss", null, null),
+                patient(3L, "Annika", "Ray", null, null)));
+
+        index.remove(2L);
+        index.remove(3L);
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(1L), ids(index.suggest("ann", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("annab", 10)));
+        assertEquals(List.of(), ids(index.suggest("anni", 10)));
+        assertEquals(List.of(), ids(index.suggest("moss", 10)));
+    }
+
+    @Test
+    void removingEveryPatientEmptiesTheTrie() {
+        index.index(List.of(
+                patient(1L, "Ann", "Lee", "555-123-4567", "ann@example.com"),
+                patient(2L, "Anne", "Lee", "555-123-9999", "anne@example.com")));
+
+        index.remove(1L);
+        index.remove(2L);
+
+        assertEquals(0, index.size());
+        assertEquals(List.of(), ids(index.suggest("a", 10)));
+        assertEquals(List.of(), ids(index.suggest("lee", 10)));
+        assertEquals(List.of(), ids(index.suggest("555", 10)));
+    }
+
+    @Test
+    void reinsertAfterRemoveIsFoundAgain() {
+        index.index(List.of(patient(1L, "Annabel", "Lee", null, null), patient(2L, "Ann", "Moss", null, null)));
+        index.remove(1L);
+
+        index.index(List.of(patient(1L, "Annabel", "Lee", null, null)));
+
+        assertEquals(List.of(2L, 1L), ids(index.suggest("ann", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("lee", 10)));
+    }
+
+    @Test
+    void updateReplacesOldKeys() {
+        index.index(List.of(patient(1L, "Ann", "Moss", "555-123-4567", "ann.moss@example.com")));
+
+        index.index(List.of(patient(1L, "Ann", "Lee", "555-987-0000", "ann.lee@example.com")));
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(), ids(index.suggest("moss", 10)));
+        assertEquals(List.of(), ids(index.suggest("5551234567", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("lee", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("555 987", 10)));
+        assertEquals("Lee", index.suggest("ann", 10).get(0).lastName());
+    }
+
+    @Test
+    void phoneNumbersMatchWholeOrByGroup() {
+        index.index(List.of(
+                patient(1L, "Ann", "Lee", "(555) 123-4567", null),
+                patient(2L, "Bob", "Ray", "555-124-0000", null)));
+
+        assertEquals(List.of(1L), ids(index.suggest("5551234567", 10)));
+        assertEquals(List.of(1L, 2L), ids(index.suggest("55512", 10)));
+        // Groups typed with punctuation are first joined and matched against the whole number
+        assertEquals(List.of(1L), ids(index.suggest("555-123-45", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("4567", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("124", 10)));
+        // Not a prefix of the whole number, so matched group by group: "123" and "0000" are on different patients
+        assertEquals(List.of(), ids(index.suggest("123 0000", 10)));
+    }
+
+    @Test
+    void everyWordOfTheQueryMustMatch() {
+        index.index(List.of(
+                patient(1L, "Ann", "Lee", null, "ann.lee@clinic.org"),
+                patient(2L, "Ann", "Moss", null, "amoss@example.com"),
+                patient(3L, "Bob", "Lee", null, "bob@example.com")));
+
+        assertEquals(List.of(1L), ids(index.suggest("ann lee", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("Lee A", 10)));
+        assertEquals(List.of(2L), ids(index.suggest("ann example", 10)));
+        assertEquals(List.of(1L), ids(index.suggest("clinic", 10)));
+        assertEquals(List.of(), ids(index.suggest("bob moss", 10)));
+    }
+
+    @Test
+    void suggestionsStopAtTheLimit() {
+        for (long id = 1; id <= 8; id++) {
+            index.index(List.of(patient(id, "Patient" + id, "Smith", null, null)));
+        }
+
+        List<PatientSuggestion> suggestions = index.suggest("smith", 3);
+
+        assertEquals(3, suggestions.size());
+        assertEquals(8, index.suggest("smith", 20).size());
+        assertEquals(List.of(1L, 2L, 3L), ids(suggestions));
+    }
+
+    @Test
+    void blankQueryHasNoSuggestions() {
+        index.index(List.of(patient(1L, "Ann", "Lee", null, null)));
+
+        assertTrue(index.suggest("  -- ", 10).isEmpty());
+    }
+
+    private static PatientSuggestion patient(Long id, String firstName, String lastName, String phoneNumber, String email) {
+        return new PatientSuggestion(id, firstName, lastName, phoneNumber, email);
+    }
+
+    private static List<Long> ids(List<PatientSuggestion> suggestions) {
+        return suggestions.stream().map(PatientSuggestion::id).toList();
+    }
+}
@@ -0,0 +1,159 @@
+package org.chikere.bptracker.app.service;
+
+import org.chikere.bptracker.app.dto.BulkIngestResult;
+import org.chikere.bptracker.app.dto.BulkReadingRow;
+import org.chikere.bptracker.app.model.BloodPressureReading;
+import org.chikere.bptracker.app.model.User;
+import org.chikere.bptracker.app.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Per-row results of {@link ReadingIngestionService}, and the IDs it reads back from its JDBC batch inserts.
+ * The batch size is small, so a request spans several batches.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ingestion",
+        "spring.jpa.show-sql=false",
+        "app.bulk.batch-size=2"
+})
+class ReadingIngestionServiceTest {
+
+    private static final AtomicLong PATIENT_IDS = new AtomicLong(2_000_000);
+    private static final LocalDateTime READING_TIME = LocalDateTime.of(2025, 3, 1, 9, 30);
+
+    @Autowired
+    private ReadingIngestionService ingestionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private AlertService alertService;
+
+    @Test
+    void eachRowIsAcceptedOrRejectedInRequestOrder() {
+        long patientId = createPatient();
+        List<BulkReadingRow> rows = Arrays.asList(
+                row(patientId, 118, 76, 70),
+                row(patientId, 300, 80, 70),
+                null,
+                row(patientId + 1_000, 120, 80, 70),
+                row(patientId, null, 30, 250),
+                row(patientId, 150, 95, null));
+
+        BulkIngestResult result = ingestionService.ingest(rows, nurse());
+
+        assertEquals(6, result.received());
+        assertEquals(2, result.accepted());
+        assertEquals(4, result.rejected());
+        assertEquals(List.of(
+                new BulkIngestResult.RowResult(0, BulkIngestResult.Status.ACCEPTED, BloodPressureReading.AlertLevel.NORMAL, List.of()),
+                new BulkIngestResult.RowResult(1, BulkIngestResult.Status.REJECTED, null,
+                        List.of("Systolic pressure must be at most 250")),
+                new BulkIngestResult.RowResult(2, BulkIngestResult.Status.REJECTED, null, List.of("Malformed row")),
+                new BulkIngestResult.RowResult(3, BulkIngestResult.Status.REJECTED, null,
+                        List.of("Patient not found with id: " + (patientId + 1_000))),
+                // Sorted by property: diastolic, heart rate, systolic
+                new BulkIngestResult.RowResult(4, BulkIngestResult.Status.REJECTED, null, List.of(
+                        "Diastolic pressure must be at least 40",
+                        "Heart rate must be at most 200",
+                        "Systolic pressure is required")),
+                new BulkIngestResult.RowResult(5, BulkIngestResult.Status.ACCEPTED, BloodPressureReading.AlertLevel.HIGH, List.of())),
+                result.rows());
+        assertEquals(List.of(118, 150), jdbcTemplate.queryForList(
+                "SELECT systolic FROM blood_pressure_readings WHERE patient_id = ? ORDER BY id", Integer.class, patientId));
+    }
+
+    @Test
+    void generatedIdsAreSetOnTheStoredReadings() {
+        long patientId = createPatient();
+        List<BulkReadingRow> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(row(patientId, 141 + i, 85, 72));
+        }
+        clearInvocations(alertService);
+
+        ingestionService.ingest(rows, nurse());
+
+        ArgumentCaptor<BloodPressureReading> published = ArgumentCaptor.forClass(BloodPressureReading.class);
+        verify(alertService, times(5)).publishReadingAlert(published.capture());
+        List<Map<String, Object>> stored = jdbcTemplate.queryForList(
+                "SELECT id, systolic FROM blood_pressure_readings WHERE patient_id = ? ORDER BY id", patientId);
+        assertEquals(5, stored.size());
+        for (int i = 0; i < 5; i++) {
+            BloodPressureReading reading = published.getAllValues().get(i);
+            assertNotNull(reading.getId(), "Reading " + i + " has no ID");
+            // Readings across all three batches carry the ID of their own row
+            assertEquals(((Number) stored.get(i).get("id")).longValue(), reading.getId());
+            assertEquals(stored.get(i).get("systolic"), reading.getSystolicPressure());
+        }
+    }
+
+    @Test
+    void criticalReadingRaisesHighBPAlertWithItsId() {
+        long patientId = createPatient();
+        clearInvocations(alertService);
+
+        ingestionService.ingest(List.of(row(patientId, 120, 80, 70), row(patientId, 185, 100, 90)), nurse());
+
+        ArgumentCaptor<BloodPressureReading> critical = ArgumentCaptor.forClass(BloodPressureReading.class);
+        verify(alertService).triggerHighBPAlert(critical.capture());
+        Long storedId = jdbcTemplate.queryForObject(
+                "SELECT id FROM blood_pressure_readings WHERE patient_id = ? AND systolic = 185", Long.class, patientId);
+        assertEquals(storedId, critical.getValue().getId());
+    }
+
+    @Test
+    void requestWithoutValidRowsStoresNothing() {
+        long patientId = createPatient();
+        clearInvocations(alertService);
+
+        BulkIngestResult result = ingestionService.ingest(Arrays.asList(null, row(patientId, 50, 80, 70)), nurse());
+
+        assertEquals(0, result.accepted());
+        assertEquals(2, result.rejected());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM blood_pressure_readings WHERE patient_id = ?", Integer.class, patientId));
+        verify(alertService, never()).publishReadingAlert(any());
+        verify(alertService, never()).triggerHighBPAlert(any());
+    }
+
+    private User nurse() {
+        return userRepository.findByUsername("nurse").orElseThrow();
+    }
+
+    private long createPatient() {
+        long patientId = PATIENT_IDS.incrementAndGet();
+        jdbcTemplate.update("INSERT INTO patients (id, first_name, last_name, phone_number, registration_date) " +
+                "VALUES (?, 'Bulk', 'Test', '5550001111', current_date)", patientId);
+        return patientId;
+    }
+
+    private static BulkReadingRow row(Long patientId, Integer systolic, Integer diastolic, Integer heartRate) {
+        return new BulkReadingRow(patientId, systolic, diastolic, heartRate, null, null, null, READING_TIME,
+                null, null, null, null, "gw-1", null);
+    }
+}
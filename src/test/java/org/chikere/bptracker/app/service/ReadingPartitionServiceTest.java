@@ -0,0 +1,124 @@
+package org.chikere.bptracker.app.service;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Partition maintenance against a local embedded PostgreSQL instance running the "partitioned" profile.
+ * Skipped when the PostgreSQL binaries cannot be started on the build machine.
+ */
+@SpringBootTest
+@ActiveProfiles("partitioned")
+class ReadingPartitionServiceTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private ReadingPartitionService partitionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long patientId;
+
+    @BeforeAll
+    static void startPostgres() {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException | IllegalStateException e) {
+            Assumptions.abort("Embedded PostgreSQL unavailable: " + e.getMessage());
+        }
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @BeforeEach
+    void createPatient() {
+        patientId = jdbcTemplate.queryForObject("INSERT INTO patients (first_name, last_name, phone_number, registration_date) " +
+                "VALUES ('Partition', 'Test', '5559990000', current_date) RETURNING id", Long.class);
+    }
+
+    @Test
+    void startupCreatesPartitionsForCurrentAndUpcomingMonths() {
+        YearMonth current = YearMonth.now();
+
+        for (int i = 0; i <= 3; i++) {
+            assertTrue(partitionService.getPartitions().containsKey(current.plusMonths(i)), "Missing partition for " + current.plusMonths(i));
+        }
+    }
+
+    @Test
+    void schemaScriptOwnsReadingForeignKeys() {
+        Integer foreignKeys = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_constraint " +
+                "WHERE conrelid = 'blood_pressure_readings'::regclass AND contype = 'f'", Integer.class);
+
+        assertEquals(2, foreignKeys);
+    }
+
+    @Test
+    void createPartitionsMovesReadingsOutOfDefaultPartition() {
+        addReading(LocalDateTime.of(2020, 1, 5, 9, 0));
+        addReading(LocalDateTime.of(2020, 1, 28, 21, 30));
+        assertEquals(2, count("blood_pressure_readings_default"));
+
+        partitionService.createPartitions();
+
+        assertEquals("blood_pressure_readings_p2020_01", partitionService.getPartitions().get(YearMonth.of(2020, 1)));
+        assertEquals(2, count("blood_pressure_readings_p2020_01"));
+        assertEquals(0, count("blood_pressure_readings_default"));
+    }
+
+    @Test
+    void retentionDetachesExpiredPartitionsAndKeepsTheirRows() {
+        addReading(LocalDateTime.of(2019, 6, 10, 8, 0));
+        partitionService.createPartitions();
+
+        partitionService.detachPartitionsBefore(YearMonth.of(2019, 7));
+
+        assertFalse(partitionService.getPartitions().containsKey(YearMonth.of(2019, 6)));
+        assertEquals(1, count("blood_pressure_readings_p2019_06"));
+        Integer attached = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM blood_pressure_readings " +
+                "WHERE reading_time < '2019-07-01'", Integer.class);
+        assertEquals(0, attached);
+    }
+
+    private void addReading(LocalDateTime readingTime) {
+        jdbcTemplate.update("INSERT INTO blood_pressure_readings (patient_id, systolic, diastolic, reading_time, alert_level) " +
+                "VALUES (?, 120, 80, ?, 'NORMAL')", patientId, readingTime);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -0,0 +1,238 @@
+package org.chikere.bptracker.app.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Queueing, coalescing and retries of {@link SMSService}, with its sender thread running against a test provider
+ * or {@link MockSmsProvider}
+ */
+class SMSServiceTest {
+
+    private static final String PHONE = "5550001111";
+
+    private final RecordingProvider recordingProvider = new RecordingProvider();
+    private SMSService smsService;
+
+    @AfterEach
+    void stopService() throws InterruptedException {
+        recordingProvider.release.countDown();
+        if (smsService != null) {
+            smsService.stop();
+        }
+    }
+
+    @Test
+    void duplicateWithinWindowIsCoalesced() {
+        smsService = start(recordingProvider, 100, Duration.ofMinutes(10));
+
+        assertTrue(smsService.sendSMS(PHONE, "BP alert"));
+        assertTrue(smsService.sendSMS(PHONE, "BP alert"));
+        assertTrue(smsService.sendSMS(PHONE, "Another alert"));
+        assertTrue(smsService.sendSMS("5550002222", "BP alert"));
+        recordingProvider.release.countDown();
+
+        await(() -> smsService.getSentCount() == 3);
+        assertEquals(1, smsService.getCoalescedCount());
+        assertEquals(List.of(PHONE + ": BP alert", PHONE + ": Another alert", "5550002222: BP alert"),
+                recordingProvider.sent);
+    }
+
+    @Test
+    void duplicateAfterWindowIsSentAgain() throws InterruptedException {
+        smsService = start(recordingProvider, 100, Duration.ofMillis(20));
+        recordingProvider.release.countDown();
+
+        assertTrue(smsService.sendSMS(PHONE, "BP alert"));
+        await(() -> smsService.getSentCount() == 1);
+        Thread.sleep(40);
+        assertTrue(smsService.sendSMS(PHONE, "BP alert"));
+
+        await(() -> smsService.getSentCount() == 2);
+        assertEquals(0, smsService.getCoalescedCount());
+    }
+
+    @Test
+    void fullQueueRejectsMessages() throws InterruptedException {
+        smsService = start(recordingProvider, 1, Duration.ofMinutes(10));
+        assertTrue(smsService.sendSMS(PHONE, "first"));
+        // The sender has taken the first message and is blocked in the provider
+        assertTrue(recordingProvider.entered.await(5, TimeUnit.SECONDS));
+        assertTrue(smsService.sendSMS(PHONE, "second"));
+
+        assertFalse(smsService.sendSMS(PHONE, "third"));
+
+        assertEquals(1, smsService.getQueueDepth());
+        assertEquals(1, smsService.getDroppedCount());
+        recordingProvider.release.countDown();
+        await(() -> smsService.getSentCount() == 2);
+        // A rejected message is not remembered for coalescing, so a resend is queued
+        assertTrue(smsService.sendSMS(PHONE, "third"));
+        await(() -> smsService.getSentCount() == 3);
+        assertEquals(0, smsService.getCoalescedCount());
+    }
+
+    @Test
+    void retryExhaustionCallsFailureCallback() throws Exception {
+        MockSmsProvider failingProvider = new MockSmsProvider();
+        ReflectionTestUtils.setField(failingProvider, "latency", Duration.ZERO);
+        ReflectionTestUtils.setField(failingProvider, "failureRate", 1.0);
+        ReflectionTestUtils.setField(failingProvider, "maxBatchSize", 10);
+        smsService = start(failingProvider, 100, Duration.ofMinutes(10));
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+
+        assertTrue(smsService.sendSMS(PHONE, "BP alert", failure::complete));
+
+        Throwable error = failure.get(5, TimeUnit.SECONDS);
+        assertInstanceOf(SmsProvider.SmsDeliveryException.class, error);
+        assertEquals("Simulated provider failure", error.getMessage());
+        await(() -> smsService.getFailedCount() == 1);
+        assertEquals(0, smsService.getSentCount());
+    }
+
+    @Test
+    void coalescedDuplicateSharesTheFailure() throws Exception {
+        recordingProvider.failures.set(3);
+        smsService = start(recordingProvider, 100, Duration.ofMinutes(10));
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        CompletableFuture<Throwable> duplicateFailure = new CompletableFuture<>();
+        assertTrue(smsService.sendSMS(PHONE, "BP alert", failure::complete));
+        assertTrue(recordingProvider.entered.await(5, TimeUnit.SECONDS));
+
+        assertTrue(smsService.sendSMS(PHONE, "BP alert", duplicateFailure::complete));
+        recordingProvider.release.countDown();
+
+        Throwable error = failure.get(5, TimeUnit.SECONDS);
+        assertEquals("Provider unavailable", error.getMessage());
+        assertEquals(error, duplicateFailure.get(5, TimeUnit.SECONDS));
+        assertEquals(3, recordingProvider.requests.get());
+        assertEquals(1, smsService.getCoalescedCount());
+        // The failed message is forgotten for coalescing, so a resend is queued and sent
+        assertTrue(smsService.sendSMS(PHONE, "BP alert"));
+        await(() -> smsService.getSentCount() == 1);
+        assertEquals(1, smsService.getCoalescedCount());
+    }
+
+    @Test
+    void failureCallbackIsNotCalledAfterRetrySucceeds() throws Exception {
+        recordingProvider.failures.set(2);
+        smsService = start(recordingProvider, 100, Duration.ofMinutes(10));
+        recordingProvider.release.countDown();
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+
+        assertTrue(smsService.sendSMS(PHONE, "BP alert", failure::complete));
+
+        await(() -> smsService.getSentCount() == 1);
+        assertEquals(3, recordingProvider.requests.get());
+        assertFalse(failure.isDone());
+        assertEquals(0, smsService.getFailedCount());
+    }
+
+    @Test
+    void mockProviderSendsWithoutFailures() {
+        MockSmsProvider provider = new MockSmsProvider();
+        ReflectionTestUtils.setField(provider, "latency", Duration.ZERO);
+        ReflectionTestUtils.setField(provider, "maxBatchSize", 10);
+        smsService = start(provider, 100, Duration.ofMinutes(10));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(smsService.sendSMS(PHONE, "Message " + i));
+        }
+
+        await(() -> smsService.getSentCount() == 5);
+        assertEquals(0, smsService.getFailedCount());
+    }
+
+    @Test
+    void disabledServiceQueuesNothing() {
+        smsService = start(recordingProvider, 100, Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(smsService, "smsEnabled", false);
+
+        assertFalse(smsService.sendSMS(PHONE, "BP alert"));
+        assertEquals(0, smsService.getQueueDepth());
+    }
+
+    /**
+     * Start a service with a single message per batch, a fast rate limit and short retry backoffs
+     */
+    private static SMSService start(SmsProvider provider, int queueCapacity, Duration coalesceWindow) {
+        SMSService service = new SMSService(List.of(provider), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "smsEnabled", true);
+        ReflectionTestUtils.setField(service, "smsProvider", provider.getName());
+        ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(service, "batchSize", 1);
+        ReflectionTestUtils.setField(service, "ratePerSecond", 1000.0);
+        ReflectionTestUtils.setField(service, "burst", 100);
+        ReflectionTestUtils.setField(service, "coalesceWindow", coalesceWindow);
+        ReflectionTestUtils.setField(service, "maxAttempts", 3);
+        ReflectionTestUtils.setField(service, "retryBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(service, "maxRetryBackoff", Duration.ofMillis(5));
+        service.start();
+        return service;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5 seconds");
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Provider recording the messages it sends. Requests wait until released, and the first requests fail
+     * as many times as configured.
+     */
+    private static final class RecordingProvider implements SmsProvider {
+
+        private final List<String> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger requests = new AtomicInteger();
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        @Override
+        public int getMaxBatchSize() {
+            return 10;
+        }
+
+        @Override
+        public void sendBatch(List<Message> messages) {
+            requests.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SmsDeliveryException("Interrupted while sending");
+            }
+            if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new SmsDeliveryException("Provider unavailable");
+            }
+            messages.forEach(message -> sent.add(message.phoneNumber() + ": " + message.text()));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.chikere.bptracker.app.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pins the alert rates of {@link StatisticalTrendModel} on simulated patients taking one or two readings a day
+ * at random times between 07:00 and 22:00: systolic mean 130 (SD 10) and diastolic mean 82 (SD 7)
+ * unless a test adds an offset. Patients have no stored baseline, as while their state is bootstrapped, unless a test
+ * sets the true levels as their baseline.
+ * Random seeds are fixed, so the rates are deterministic.
+ */
+class StatisticalTrendModelTest {
+
+    private static final int PATIENTS = 2_000;
+    private static final long START = 1_700_006_400L;
+
+    private final StatisticalTrendModel model = new StatisticalTrendModel();
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 14, 30})
+    void stationaryPatientsAreRarelyAlerted(int days) {
+        double rate = alertRate(days, 1, (day, random) -> 0);
+
+        assertTrue(rate <= 0.05, () -> "False alert rate over " + days + " days: " + rate);
+    }
+
+    @Test
+    void stepShiftInRecentWeekIsDetected() {
+        double rate = alertRate(30, 2, (day, random) -> day >= 23 ? 20 : 0);
+
+        assertTrue(rate >= 0.95, () -> "Detection rate of a 20 mmHg step: " + rate);
+    }
+
+    @Test
+    void sustainedDriftIsDetected() {
+        double rate = alertRate(30, 3, (day, random) -> 1.5 * day);
+
+        assertTrue(rate >= 0.95, () -> "Detection rate of a 1.5 mmHg/day drift: " + rate);
+    }
+
+    @Test
+    void stationaryPatientsAreRarelyAlertedAgainstStoredBaseline() {
+        double rate = alertRate(30, 6, (day, random) -> 0, true);
+
+        assertTrue(rate <= 0.05, () -> "False alert rate against the stored baseline: " + rate);
+    }
+
+    @Test
+    void slowDriftAboveStoredBaselineIsDetected() {
+        // Too slow for the slope test, and the reference period of the window has drifted along with it
+        double rate = alertRate(30, 7, (day, random) -> 0.6 * day, true);
+
+        assertTrue(rate >= 0.95, () -> "Detection rate of a 0.6 mmHg/day drift against the stored baseline: " + rate);
+    }
+
+    @Test
+    void baselineFromTooFewReadingsIsNotUsed() {
+        TrendSeries series = simulate(30, new Random(8), (day, random) -> 0);
+        String withoutBaseline = model.analyze(series);
+        series.setBaseline(100, 60, 5, 5, 200);
+        assertEquals("Significant increase in systolic pressure compared to baseline", model.analyze(series));
+
+        series.setBaseline(100, 60, 5, 5, 3);
+
+        assertEquals(withoutBaseline, model.analyze(series));
+    }
+
+    @Test
+    void stepShiftIsReportedAsIncreaseOverBaseline() {
+        TrendSeries series = simulate(30, new Random(4), (day, random) -> day >= 23 ? 30 : 0);
+
+        assertEquals("Significant increase in systolic pressure compared to baseline", model.analyze(series));
+    }
+
+    @Test
+    void driftWithoutReferencePeriodIsReportedAsTrend() {
+        // Ten days at two readings a day leave fewer reference readings than the shift test needs
+        TrendSeries series = new TrendSeries(20);
+        Random random = new Random(5);
+        for (int i = 0; i < 20; i++) {
+            series.add(START + i * 43_200L + 8 * 3600, (int) Math.round(125 + 2.5 * i / 2.0 + random.nextGaussian() * 5), 80);
+        }
+
+        assertEquals("Gradual upward trend in systolic pressure", model.analyze(series));
+    }
+
+    @Test
+    void tooFewReadingsAreNotAnalyzed() {
+        TrendSeries series = new TrendSeries(4);
+        for (int i = 0; i < 4; i++) {
+            series.add(START + i * 86_400L, 200, 130);
+        }
+
+        assertNull(model.analyze(series));
+    }
+
+    private double alertRate(int days, long seed, Offset systolicOffset) {
+        return alertRate(days, seed, systolicOffset, false);
+    }
+
+    private double alertRate(int days, long seed, Offset systolicOffset, boolean storedBaseline) {
+        Random random = new Random(seed);
+        int alerted = 0;
+        for (int i = 0; i < PATIENTS; i++) {
+            TrendSeries series = simulate(days, random, systolicOffset);
+            if (storedBaseline) {
+                series.setBaseline(130, 82, 10, 7, 200);
+            }
+            if (model.analyze(series) != null) {
+                alerted++;
+            }
+        }
+        return (double) alerted / PATIENTS;
+    }
+
+    private static TrendSeries simulate(int days, Random random, Offset systolicOffset) {
+        TrendSeries series = new TrendSeries(days * 2);
+        for (int day = 0; day < days; day++) {
+            int readings = 1 + random.nextInt(2);
+            for (int i = 0; i < readings; i++) {
+                long time = START + day * 86_400L + 7 * 3600 + random.nextInt(15 * 3600);
+                double offset = systolicOffset.at((time - START) / 86_400d, random);
+                series.add(time, (int) Math.round(130 + offset + random.nextGaussian() * 10),
+                        (int) Math.round(82 + random.nextGaussian() * 7));
+            }
+        }
+        series.sortByTime();
+        return series;
+    }
+
+    /**
+     * Systolic offset from the stationary level on a given day
+     */
+    @FunctionalInterface
+    private interface Offset {
+        double at(double day, Random random);
+    }
+}
@@ -0,0 +1,82 @@
+package org.chikere.bptracker.app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Rate and burst of {@link TokenBucket}, driven by a hand-advanced clock
+ */
+class TokenBucketTest {
+
+    private long now = 1_000_000_000L;
+
+    private final TokenBucket bucket = new TokenBucket(10, 20, () -> now);
+
+    @Test
+    void fullBucketAllowsBurstOfCapacity() {
+        for (int i = 0; i < 20; i++) {
+            assertEquals(0, bucket.tryAcquire(1), "Token " + i);
+        }
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire(1));
+    }
+
+    @Test
+    void tokensRefillAtTheRate() {
+        assertEquals(0, bucket.tryAcquire(20));
+
+        advanceMillis(250);
+
+        assertEquals(0, bucket.tryAcquire(2));
+        // Half a token is left, so a third token is 50 ms away
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), bucket.tryAcquire(1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(250), bucket.tryAcquire(3));
+    }
+
+    @Test
+    void refillStopsAtCapacity() {
+        assertEquals(0, bucket.tryAcquire(5));
+
+        advanceMillis(60_000);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.tryAcquire(21));
+        assertEquals(0, bucket.tryAcquire(20));
+    }
+
+    @Test
+    void sustainedRateIsBurstPlusRefill() {
+        int taken = 0;
+        for (int millis = 0; millis < 10_000; millis += 10) {
+            while (bucket.tryAcquire(1) == 0) {
+                taken++;
+            }
+            advanceMillis(10);
+        }
+
+        // 20 up front, then 10 a second over the 9.99 seconds before the last drain
+        assertEquals(20 + 99, taken);
+    }
+
+    @Test
+    void failedAttemptTakesNoTokens() {
+        assertEquals(0, bucket.tryAcquire(15));
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.tryAcquire(10));
+
+        assertEquals(0, bucket.tryAcquire(5));
+    }
+
+    @Test
+    void rateAndCapacityMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 5, () -> now));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(5, 0, () -> now));
+    }
+
+    private void advanceMillis(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}